@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl.benchmarks;
+
+import javafxpert.tictactoerl.BatchTicTacToeEnv;
+import javafxpert.tictactoerl.TicTacToeRules;
+import javafxpert.tictactoerl.TicTacToeState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of BatchTicTacToeEnv.step, in game steps per second, against each environment
+ * player policy.  Comparable with EnvironmentBenchmark.executeAction.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchEnvironmentBenchmark {
+  private static final int NUM_GAMES = 1024;
+
+  @Param({"0", "1", "2", "3", "4", "5"})
+  public int policy;
+
+  private BatchTicTacToeEnv env;
+
+  private int[] cells = new int[NUM_GAMES];
+
+  private int moveCounter = 0;
+
+  @Setup
+  public void setUp() {
+    env = new BatchTicTacToeEnv(NUM_GAMES);
+    env.setAgentPolicy(policy);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_GAMES)
+  public int step() {
+    int[] boards = env.getBoards();
+    for (int game = 0; game < NUM_GAMES; game++) {
+      int empty = TicTacToeState.emptyMask(boards[game]);
+      cells[game] = TicTacToeRules.nthCell(empty, moveCounter++ % Integer.bitCount(empty));
+    }
+    return env.step(cells);
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl.benchmarks;
+
+import javafxpert.tictactoerl.TicTacToeRules;
+import javafxpert.tictactoerl.TicTacToeState;
+
+import java.util.Random;
+
+/**
+ * Boards for the benchmarks, sampled by random play from the empty board
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+final class BenchmarkBoards {
+  static final int NUM_BOARDS = 1024;
+
+  private BenchmarkBoards() {
+  }
+
+  /**
+   * Reachable packed boards, a mix of in-progress and finished games
+   */
+  static int[] reachableBoards(long seed) {
+    Random random = new Random(seed);
+    int[] boards = new int[NUM_BOARDS];
+    for (int i = 0; i < boards.length; i++) {
+      int board = 0;
+      int numMoves = random.nextInt(TicTacToeState.NUM_CELLS + 1);
+      for (int move = 0; move < numMoves && TicTacToeRules.status(board) == TicTacToeRules.STATUS_IN_PROGRESS; move++) {
+        int empty = TicTacToeState.emptyMask(board);
+        int cell = TicTacToeRules.nthCell(empty, random.nextInt(Integer.bitCount(empty)));
+        board = TicTacToeState.withMark(board, cell, move % 2 == 0 ? TicTacToeState.X_MARK : TicTacToeState.O_MARK);
+      }
+      boards[i] = board;
+    }
+    return boards;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl.benchmarks;
+
+import javafxpert.tictactoerl.MoveAction;
+import javafxpert.tictactoerl.TicTacToeEnv;
+import javafxpert.tictactoerl.TicTacToeRules;
+import javafxpert.tictactoerl.TicTacToeState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of TicTacToeEnv.executeAction against each environment player policy.  The
+ * agent side cycles through the empty cells so that games take different paths.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnvironmentBenchmark {
+  @Param({"0", "1", "2", "3", "4", "5"})
+  public int policy;
+
+  private TicTacToeEnv env;
+
+  private MoveAction[] moves = new MoveAction[TicTacToeState.NUM_CELLS];
+
+  private int moveCounter = 0;
+
+  @Setup
+  public void setUp() {
+    env = new TicTacToeEnv();
+    env.setAgentPolicy(policy);
+    for (int cell = 0; cell < moves.length; cell++) {
+      moves[cell] = MoveAction.of(cell);
+    }
+  }
+
+  @Benchmark
+  public EnvironmentOutcome executeAction() {
+    if (env.isInTerminalState()) {
+      env.resetEnvironment();
+    }
+    int empty = ((TicTacToeState)env.currentObservation()).emptyMask();
+    int cell = TicTacToeRules.nthCell(empty, moveCounter++ % Integer.bitCount(empty));
+    return env.executeAction(moves[cell]);
+  }
+}
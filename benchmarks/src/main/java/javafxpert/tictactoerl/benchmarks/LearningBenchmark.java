@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl.benchmarks;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.learning.LearningAgent;
+import burlap.behavior.singleagent.learning.tdmethods.QLearning;
+import burlap.mdp.singleagent.SADomain;
+import burlap.statehashing.ReflectiveHashableStateFactory;
+import javafxpert.tictactoerl.IndexedHashableStateFactory;
+import javafxpert.tictactoerl.SymmetricHashableStateFactory;
+import javafxpert.tictactoerl.SymmetricQLearning;
+import javafxpert.tictactoerl.TabularQLearning;
+import javafxpert.tictactoerl.TicTacToeEnv;
+import javafxpert.tictactoerl.TicTacToeWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of full runLearningEpisode calls, in episodes per second, for each learner
+ * against each environment player policy
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LearningBenchmark {
+  @Param({"0", "1", "2", "3", "4", "5"})
+  public int policy;
+
+  @Param({"tabular", "qlearning", "indexed", "symmetric"})
+  public String learner;
+
+  private LearningAgent agent;
+
+  private TicTacToeEnv env;
+
+  @Setup
+  public void setUp() {
+    SADomain domain = new TicTacToeWorld().generateDomain();
+    if (learner.equals("qlearning")) {
+      agent = new QLearning(domain, 0.90, new ReflectiveHashableStateFactory(), 0.0, 1.0);
+    }
+    else if (learner.equals("indexed")) {
+      agent = new QLearning(domain, 0.90, new IndexedHashableStateFactory(), 0.0, 1.0);
+    }
+    else if (learner.equals("symmetric")) {
+      agent = new SymmetricQLearning(domain, 0.90, new SymmetricHashableStateFactory(), 0.0, 1.0);
+    }
+    else {
+      agent = new TabularQLearning(domain, 0.90, 0.0, 1.0);
+    }
+    env = new TicTacToeEnv();
+    env.setAgentPolicy(policy);
+  }
+
+  @Benchmark
+  public Episode runLearningEpisode() {
+    Episode episode = agent.runLearningEpisode(env);
+    env.resetEnvironment();
+    return episode;
+  }
+}
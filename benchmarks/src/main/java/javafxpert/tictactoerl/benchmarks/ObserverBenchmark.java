@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl.benchmarks;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.extensions.EnvironmentObserver;
+import javafxpert.tictactoerl.AsyncEnvironmentObserver;
+import javafxpert.tictactoerl.MoveAction;
+import javafxpert.tictactoerl.TicTacToeEnv;
+import javafxpert.tictactoerl.TicTacToeRules;
+import javafxpert.tictactoerl.TicTacToeState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost that an observer adds to TicTacToeEnv.executeAction, with an observer that only counts
+ * its notifications: none, called in line, or behind an AsyncEnvironmentObserver that drops
+ * notifications when its ring is full.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ObserverBenchmark {
+  @Param({"none", "sync", "async"})
+  public String observer;
+
+  private TicTacToeEnv env;
+
+  private AsyncEnvironmentObserver asyncObserver;
+
+  private MoveAction[] moves = new MoveAction[TicTacToeState.NUM_CELLS];
+
+  private int moveCounter = 0;
+
+  @Setup
+  public void setUp() {
+    env = new TicTacToeEnv();
+    if (observer.equals("sync")) {
+      env.addObservers(new CountingObserver());
+    }
+    else if (observer.equals("async")) {
+      asyncObserver = new AsyncEnvironmentObserver(new CountingObserver(), 1024,
+          AsyncEnvironmentObserver.OverflowPolicy.DROP);
+      env.addObservers(asyncObserver);
+    }
+    for (int cell = 0; cell < moves.length; cell++) {
+      moves[cell] = MoveAction.of(cell);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (asyncObserver != null) {
+      asyncObserver.close();
+    }
+  }
+
+  @Benchmark
+  public EnvironmentOutcome executeAction() {
+    if (env.isInTerminalState()) {
+      env.resetEnvironment();
+    }
+    int empty = ((TicTacToeState)env.currentObservation()).emptyMask();
+    int cell = TicTacToeRules.nthCell(empty, moveCounter++ % Integer.bitCount(empty));
+    return env.executeAction(moves[cell]);
+  }
+
+  private static class CountingObserver implements EnvironmentObserver {
+    private long count = 0;
+
+    @Override
+    public void observeEnvironmentActionInitiation(burlap.mdp.core.state.State o, Action action) {
+      count++;
+    }
+
+    @Override
+    public void observeEnvironmentInteraction(EnvironmentOutcome eo) {
+      count++;
+    }
+
+    @Override
+    public void observeEnvironmentReset(Environment resetEnvironment) {
+      count++;
+    }
+  }
+}
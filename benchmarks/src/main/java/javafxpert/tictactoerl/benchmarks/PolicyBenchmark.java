@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl.benchmarks;
+
+import burlap.behavior.policy.EpsilonGreedy;
+import burlap.behavior.policy.Policy;
+import burlap.mdp.core.action.Action;
+import javafxpert.tictactoerl.CompiledPolicy;
+import javafxpert.tictactoerl.TabularQLearning;
+import javafxpert.tictactoerl.TicTacToeEnv;
+import javafxpert.tictactoerl.TicTacToeRules;
+import javafxpert.tictactoerl.TicTacToeState;
+import javafxpert.tictactoerl.TicTacToeWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of choosing a move with a trained agent's greedy policy, either through
+ * EpsilonGreedy on the agent or through the agent's CompiledPolicy
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolicyBenchmark {
+  private TicTacToeState[] states;
+
+  private Policy epsilonGreedy;
+
+  private CompiledPolicy compiledPolicy;
+
+  private int next = 0;
+
+  @Setup
+  public void setUp() {
+    TabularQLearning agent = new TabularQLearning(new TicTacToeWorld().generateDomain(), 0.90, 0.0, 1.0);
+    TicTacToeEnv env = new TicTacToeEnv();
+    for (int i = 0; i < 20000; i++) {
+      agent.runLearningEpisode(env);
+      env.resetEnvironment();
+    }
+    epsilonGreedy = new EpsilonGreedy(agent, 0.0);
+    compiledPolicy = CompiledPolicy.compile(agent);
+
+    List<TicTacToeState> inProgress = new ArrayList<>();
+    for (int board : BenchmarkBoards.reachableBoards(42)) {
+      if (TicTacToeRules.status(board) == TicTacToeRules.STATUS_IN_PROGRESS) {
+        inProgress.add(new TicTacToeState(board));
+      }
+    }
+    states = inProgress.toArray(new TicTacToeState[0]);
+  }
+
+  @Benchmark
+  public Action epsilonGreedyAction() {
+    return epsilonGreedy.action(nextState());
+  }
+
+  @Benchmark
+  public Action compiledAction() {
+    return compiledPolicy.action(nextState());
+  }
+
+  private TicTacToeState nextState() {
+    TicTacToeState state = states[next];
+    next = next + 1 == states.length ? 0 : next + 1;
+    return state;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl.benchmarks;
+
+import burlap.mdp.core.action.Action;
+import javafxpert.tictactoerl.MoveActionType;
+import javafxpert.tictactoerl.TicTacToeRules;
+import javafxpert.tictactoerl.TicTacToeState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the per-state paths that every learning step goes through: game status
+ * evaluation, applicable action generation and state copying.  Each invocation covers
+ * BenchmarkBoards.NUM_BOARDS boards, and results are reported per board.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateBenchmark {
+  private int[] boards;
+
+  private TicTacToeState[] states;
+
+  private MoveActionType moveActionType = new MoveActionType();
+
+  @Setup
+  public void setUp() {
+    boards = BenchmarkBoards.reachableBoards(42);
+    states = new TicTacToeState[boards.length];
+    for (int i = 0; i < boards.length; i++) {
+      states[i] = new TicTacToeState(boards[i]);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BenchmarkBoards.NUM_BOARDS)
+  public void gameStatus(Blackhole blackhole) {
+    for (int board : boards) {
+      blackhole.consume(TicTacToeRules.status(board));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BenchmarkBoards.NUM_BOARDS)
+  public void gameStatusString(Blackhole blackhole) {
+    for (TicTacToeState state : states) {
+      blackhole.consume(state.get(TicTacToeState.VAR_GAME_STATUS));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BenchmarkBoards.NUM_BOARDS)
+  public void allApplicableActions(Blackhole blackhole) {
+    for (TicTacToeState state : states) {
+      List<Action> actions = moveActionType.allApplicableActions(state);
+      blackhole.consume(actions);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BenchmarkBoards.NUM_BOARDS)
+  public void copy(Blackhole blackhole) {
+    for (TicTacToeState state : states) {
+      blackhole.consume(state.copy());
+    }
+  }
+}
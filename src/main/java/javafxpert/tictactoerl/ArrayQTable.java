@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.util.Arrays;
+
+/**
+ * QTable backed by a plain double array, for use by a single thread
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class ArrayQTable implements QTable {
+  private double qInit;
+
+  private double[] values = new double[SIZE];
+
+  public ArrayQTable(double qInit) {
+    this.qInit = qInit;
+    reset();
+  }
+
+  @Override
+  public double getQInit() {
+    return qInit;
+  }
+
+  @Override
+  public double get(int index) {
+    return values[index];
+  }
+
+  @Override
+  public void set(int index, double q) {
+    values[index] = q;
+  }
+
+  @Override
+  public void update(int index, double learningRate, double target) {
+    values[index] += learningRate * (target - values[index]);
+  }
+
+  @Override
+  public void reset() {
+    Arrays.fill(values, qInit);
+  }
+}
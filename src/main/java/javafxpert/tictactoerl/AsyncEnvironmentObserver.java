@@ -0,0 +1,328 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.extensions.EnvironmentObserver;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers the notifications of one or more environments to another EnvironmentObserver on a
+ * dispatcher thread of its own, so that a slow observer, such as a logger or a visualizer,
+ * does not slow down the threads stepping the environments.  Notifications wait in a bounded
+ * ring buffer of preallocated slots; when it is full they are either dropped and counted, or
+ * the notifying thread waits until there is room, as chosen by the OverflowPolicy.
+ *
+ * The ring takes no lock.  A notifying thread claims a slot by advancing the tail counter and
+ * publishes it by setting the slot's sequence number.  An idle dispatcher polls the ring every
+ * DISPATCH_INTERVAL_NANOS, and is only woken early once a quarter of the ring is waiting, so
+ * a notification usually costs one compare-and-set and a few stores rather than a thread
+ * wake-up.
+ *
+ * The observer is notified in the order the notifications were made.  Since the environment
+ * keeps changing, a reset notification should only be used to learn that a reset happened,
+ * and not to read the environment's current state.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class AsyncEnvironmentObserver implements EnvironmentObserver, AutoCloseable {
+  /**
+   * What a notifying thread does when the ring buffer is full
+   */
+  public enum OverflowPolicy {
+    /**
+     * Drop the notification, and count it in getDroppedCount
+     */
+    DROP,
+
+    /**
+     * Wait until the dispatcher has made room, backing off from yielding to short sleeps
+     */
+    BLOCK
+  }
+
+  private static final byte ACTION_INITIATION = 0;
+  private static final byte INTERACTION = 1;
+  private static final byte RESET = 2;
+
+  /**
+   * Bit of the tail counter that is set once the observer is closed, so that no slot can be
+   * claimed after the dispatcher has seen the final tail
+   */
+  private static final long CLOSED = Long.MIN_VALUE;
+
+  /**
+   * Longest an idle dispatcher sleeps before looking for notifications again
+   */
+  public static final long DISPATCH_INTERVAL_NANOS = 1_000_000;
+
+  /**
+   * Longest a notifying thread sleeps at a time while waiting for room under BLOCK
+   */
+  private static final long MAX_BACKOFF_NANOS = 1_000_000;
+
+  private EnvironmentObserver observer;
+
+  private OverflowPolicy overflowPolicy;
+
+  /**
+   * Ring buffer slots: the kind of notification, and its one or two arguments.  The capacity is
+   * a power of two, so positions map to slots with a mask.
+   */
+  private final byte[] kinds;
+  private final Object[] firstArgs;
+  private final Object[] secondArgs;
+
+  private final int mask;
+
+  /**
+   * Number of waiting notifications at which a parked dispatcher is woken
+   */
+  private final int wakeThreshold;
+
+  /**
+   * Sequence number of each slot: its position when it is free for that position to be
+   * claimed, and its position + 1 once that position's notification is published
+   */
+  private final AtomicLongArray sequences;
+
+  /**
+   * Next position to be claimed, with the CLOSED bit
+   */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * Next position to be delivered, written only by the dispatcher
+   */
+  private volatile long head = 0;
+
+  /**
+   * Whether the dispatcher is parked, or about to park, on an empty ring
+   */
+  private volatile boolean dispatcherWaiting = false;
+
+  private LongAdder droppedCount = new LongAdder();
+
+  private volatile long deliveredCount = 0;
+
+  private volatile RuntimeException observerFailure;
+
+  private Thread dispatcherThread;
+
+  /**
+   * Creates a dispatcher for an observer, and starts its thread
+   *
+   * @param observer Observer that notifications are delivered to, on the dispatcher thread
+   * @param capacity Number of notifications that may wait for the dispatcher (2 to 2^30), rounded up to a
+   * power of two.  A ring of one slot can't tell a published slot from a free one.
+   * @param overflowPolicy Whether to drop notifications or wait while the ring buffer is full
+   */
+  public AsyncEnvironmentObserver(EnvironmentObserver observer, int capacity, OverflowPolicy overflowPolicy) {
+    if (capacity < 2 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be from 2 to 2^30: " + capacity);
+    }
+    int slots = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+    this.observer = observer;
+    this.overflowPolicy = overflowPolicy;
+    this.kinds = new byte[slots];
+    this.firstArgs = new Object[slots];
+    this.secondArgs = new Object[slots];
+    this.mask = slots - 1;
+    this.wakeThreshold = Math.max(1, slots / 4);
+    this.sequences = new AtomicLongArray(slots);
+    for (int slot = 0; slot < slots; slot++) {
+      sequences.set(slot, slot);
+    }
+
+    dispatcherThread = new Thread(this::dispatch, "environment-observer-dispatcher");
+    dispatcherThread.setDaemon(true);
+    dispatcherThread.start();
+  }
+
+  public EnvironmentObserver getObserver() {
+    return observer;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  /**
+   * Number of notifications dropped because the ring buffer was full, or after close
+   */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  /**
+   * Number of notifications delivered to the observer
+   */
+  public long getDeliveredCount() {
+    return deliveredCount;
+  }
+
+  /**
+   * Number of notifications waiting for the dispatcher
+   */
+  public int getPendingCount() {
+    return (int)Math.max(0, (tail.get() & ~CLOSED) - head);
+  }
+
+  @Override
+  public void observeEnvironmentActionInitiation(State o, Action action) {
+    enqueue(ACTION_INITIATION, o, action);
+  }
+
+  @Override
+  public void observeEnvironmentInteraction(EnvironmentOutcome eo) {
+    enqueue(INTERACTION, eo, null);
+  }
+
+  @Override
+  public void observeEnvironmentReset(Environment resetEnvironment) {
+    enqueue(RESET, resetEnvironment, null);
+  }
+
+  /**
+   * Deliver the notifications that are still waiting, and stop the dispatcher thread.
+   * Notifications made after close are dropped.  Rethrows the first exception the observer threw.
+   */
+  @Override
+  public void close() {
+    long position;
+    do {
+      position = tail.get();
+    }
+    while ((position & CLOSED) == 0 && !tail.compareAndSet(position, position | CLOSED));
+    LockSupport.unpark(dispatcherThread);
+    try {
+      dispatcherThread.join();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (observerFailure != null) {
+      throw observerFailure;
+    }
+  }
+
+  private void enqueue(byte kind, Object firstArg, Object secondArg) {
+    long backoffNanos = 0;
+    long position;
+    int slot;
+    while (true) {
+      position = tail.get();
+      if ((position & CLOSED) != 0) {
+        droppedCount.increment();
+        return;
+      }
+      slot = (int)position & mask;
+      long available = sequences.get(slot) - position;
+      if (available == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          break;
+        }
+      }
+      else if (available < 0) {
+        // Full: the slot still holds the notification from one lap ago
+        if (overflowPolicy == OverflowPolicy.DROP) {
+          droppedCount.increment();
+          return;
+        }
+        if (backoffNanos == 0) {
+          Thread.yield();
+          backoffNanos = 1_000;
+        }
+        else {
+          LockSupport.parkNanos(this, backoffNanos);
+          backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF_NANOS);
+        }
+      }
+    }
+    kinds[slot] = kind;
+    firstArgs[slot] = firstArg;
+    secondArgs[slot] = secondArg;
+    sequences.set(slot, position + 1);
+    if (dispatcherWaiting && position + 1 - head >= wakeThreshold) {
+      dispatcherWaiting = false;
+      LockSupport.unpark(dispatcherThread);
+    }
+  }
+
+  private void dispatch() {
+    long position = head;
+    while (true) {
+      int slot = (int)position & mask;
+      if (sequences.get(slot) == position + 1) {
+        byte kind = kinds[slot];
+        Object firstArg = firstArgs[slot];
+        Object secondArg = secondArgs[slot];
+        firstArgs[slot] = null;
+        secondArgs[slot] = null;
+        sequences.lazySet(slot, position + mask + 1);
+        head = ++position;
+        deliver(kind, firstArg, secondArg);
+        continue;
+      }
+
+      long tailPosition = tail.get();
+      if ((tailPosition & CLOSED) != 0 && (tailPosition & ~CLOSED) == position) {
+        return;
+      }
+      if ((tailPosition & ~CLOSED) != position) {
+        // Claimed, but not yet published
+        Thread.yield();
+        continue;
+      }
+      // The sequence is checked again after announcing the wait, so a notification published
+      // before a producer could see the flag is not left for a whole interval
+      dispatcherWaiting = true;
+      if (sequences.get(slot) != position + 1 && tail.get() == tailPosition) {
+        LockSupport.parkNanos(this, DISPATCH_INTERVAL_NANOS);
+      }
+      dispatcherWaiting = false;
+      if (Thread.interrupted()) {
+        return;
+      }
+    }
+  }
+  private void deliver(byte kind, Object firstArg, Object secondArg) {
+    try {
+      if (kind == ACTION_INITIATION) {
+        observer.observeEnvironmentActionInitiation((State)firstArg, (Action)secondArg);
+      }
+      else if (kind == INTERACTION) {
+        observer.observeEnvironmentInteraction((EnvironmentOutcome)firstArg);
+      }
+      else {
+        observer.observeEnvironmentReset((Environment)firstArg);
+      }
+    }
+    catch (RuntimeException e) {
+      if (observerFailure == null) {
+        observerFailure = e;
+      }
+    }
+    deliveredCount++;
+  }
+}
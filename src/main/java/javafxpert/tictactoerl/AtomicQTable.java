@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * QTable that can be shared by learners on many threads without a lock.  Each Q-value
+ * is held as the bits of a double in an AtomicLongArray, and updates retry a
+ * compare-and-set until they apply, so concurrent updates to one entry are never lost.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class AtomicQTable implements QTable {
+  private double qInit;
+
+  private AtomicLongArray values = new AtomicLongArray(SIZE);
+
+  public AtomicQTable(double qInit) {
+    this.qInit = qInit;
+    reset();
+  }
+
+  @Override
+  public double getQInit() {
+    return qInit;
+  }
+
+  @Override
+  public double get(int index) {
+    return Double.longBitsToDouble(values.get(index));
+  }
+
+  @Override
+  public void set(int index, double q) {
+    values.set(index, Double.doubleToRawLongBits(q));
+  }
+
+  @Override
+  public void update(int index, double learningRate, double target) {
+    long bits;
+    long updatedBits;
+    do {
+      bits = values.get(index);
+      double q = Double.longBitsToDouble(bits);
+      updatedBits = Double.doubleToRawLongBits(q + learningRate * (target - q));
+    } while (!values.compareAndSet(index, bits, updatedBits));
+  }
+
+  @Override
+  public void reset() {
+    long initBits = Double.doubleToRawLongBits(qInit);
+    for (int i = 0; i < SIZE; i++) {
+      values.set(i, initBits);
+    }
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.util.SplittableRandom;
+
+/**
+ * Steps many games at once.  The games are held as parallel primitive arrays (board, status,
+ * reward, terminal flag, next-state index), and one call to step applies a move to every
+ * game, lets the environment player respond with the same OpponentPolicy implementations
+ * that TicTacToeEnv uses, and resets the games that finished.
+ *
+ * The arrays returned by the getters are owned by the environment and are overwritten by
+ * each call to step or reset.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class BatchTicTacToeEnv {
+  private final int numGames;
+
+  /**
+   * Packed board of each game as the agent next sees it, so a finished game's board has
+   * already been reset
+   */
+  private final int[] boards;
+
+  /**
+   * Status code (see TicTacToeRules) of each game after the most recent step, before reset
+   */
+  private final int[] statuses;
+
+  /**
+   * Reward of each game for the most recent step
+   */
+  private final double[] rewards;
+
+  /**
+   * Whether each game ended on the most recent step
+   */
+  private final boolean[] terminals;
+
+  /**
+   * Dense index (see TicTacToeStateIndex) of each game's board after the most recent step,
+   * before reset, i.e. the state the step transitioned to, or -1 for a board that can't arise
+   * in a game, as after an illegal move by the agent
+   */
+  private final int[] nextStateIndices;
+
+  private OpponentPolicy opponentPolicy = OpponentPolicies.forId(4);
+
+  /**
+   * Stream that the environment player's random moves are drawn from
+   */
+  private SplittableRandom random = new SplittableRandom();
+
+  private char envPlayerMark = TicTacToeState.O_MARK;
+
+  private char opposingPlayerMark = TicTacToeState.X_MARK;
+
+  public BatchTicTacToeEnv(int numGames) {
+    this.numGames = numGames;
+    this.boards = new int[numGames];
+    this.statuses = new int[numGames];
+    this.rewards = new double[numGames];
+    this.terminals = new boolean[numGames];
+    this.nextStateIndices = new int[numGames];
+    reset();
+  }
+
+  public int getNumGames() {
+    return numGames;
+  }
+
+  /**
+   * Sets the policy of the environment player to one of the built-in policies.  See
+   * TicTacToeEnv.setAgentPolicy for the policy numbers.
+   */
+  public void setAgentPolicy(int policy) {
+    this.opponentPolicy = OpponentPolicies.forId(policy);
+  }
+
+  public void setOpponentPolicy(OpponentPolicy opponentPolicy) {
+    this.opponentPolicy = opponentPolicy;
+  }
+
+  public OpponentPolicy getOpponentPolicy() {
+    return opponentPolicy;
+  }
+
+  /**
+   * Draw the random moves of the environment player from the given stream, for example one
+   * split from a seeded root so that a run can be repeated
+   */
+  public void setRandom(SplittableRandom random) {
+    this.random = random;
+  }
+
+  public SplittableRandom getRandom() {
+    return random;
+  }
+
+  /**
+   * Indicate to the environment which mark it will play as (X or O), and reset every game
+   */
+  public void setEnvPlayerMark(char envPlayerMark) {
+    this.envPlayerMark = envPlayerMark;
+    this.opposingPlayerMark = envPlayerMark == TicTacToeState.X_MARK ? TicTacToeState.O_MARK : TicTacToeState.X_MARK;
+    reset();
+  }
+
+  public char getEnvironmentPlayerMark() {
+    return envPlayerMark;
+  }
+
+  public char getAgentPlayerMark() {
+    return opposingPlayerMark;
+  }
+
+  /**
+   * Reset every game
+   */
+  public void reset() {
+    for (int game = 0; game < numGames; game++) {
+      boards[game] = startBoard();
+      statuses[game] = TicTacToeRules.STATUS_IN_PROGRESS;
+      rewards[game] = 0;
+      terminals[game] = false;
+      nextStateIndices[game] = TicTacToeStateIndex.index(boards[game]);
+    }
+  }
+
+  /**
+   * Play a move in every game, followed by the environment player's response where the game
+   * continues.  Rewards match those of TicTacToeEnv.  As in TicTacToeEnv, a move into an
+   * occupied cell leaves the board unchanged.
+   *
+   * @param cells Cell (0-8) that the agent plays in each game
+   * @return Number of games that ended, and were reset, on this step
+   */
+  public int step(int[] cells) {
+    if (cells.length != numGames) {
+      throw new IllegalArgumentException("Expected " + numGames + " moves, got " + cells.length);
+    }
+    int numTerminated = 0;
+    for (int game = 0; game < numGames; game++) {
+      int board = boards[game];
+      int cell = cells[game];
+      if (cell >= 0 && cell < TicTacToeState.NUM_CELLS && (TicTacToeState.emptyMask(board) & (1 << cell)) != 0) {
+        board = TicTacToeState.withMark(board, cell, opposingPlayerMark);
+      }
+
+      int status = TicTacToeRules.status(board);
+      if (status == TicTacToeRules.STATUS_IN_PROGRESS) {
+        int envCell = opponentPolicy.selectCell(board, envPlayerMark, random);
+        if (envCell < 0 || envCell >= TicTacToeState.NUM_CELLS || (TicTacToeState.emptyMask(board) & (1 << envCell)) == 0) {
+          throw new IllegalStateException("Environment player policy chose illegal cell " + envCell);
+        }
+        board = TicTacToeState.withMark(board, envCell, envPlayerMark);
+        status = TicTacToeRules.status(board);
+      }
+
+      statuses[game] = status;
+      rewards[game] = rewardForStatus(status);
+      nextStateIndices[game] = TicTacToeStateIndex.index(board);
+      boolean terminal = status != TicTacToeRules.STATUS_IN_PROGRESS;
+      terminals[game] = terminal;
+      if (terminal) {
+        board = startBoard();
+        numTerminated++;
+      }
+      boards[game] = board;
+    }
+    return numTerminated;
+  }
+
+  /**
+   * Packed boards the agent moves on next
+   */
+  public int[] getBoards() {
+    return boards;
+  }
+
+  /**
+   * Status codes after the most recent step, before finished games were reset
+   */
+  public int[] getStatuses() {
+    return statuses;
+  }
+
+  public double[] getRewards() {
+    return rewards;
+  }
+
+  public boolean[] getTerminals() {
+    return terminals;
+  }
+
+  /**
+   * Dense indices (see TicTacToeStateIndex) of the states the most recent step transitioned to,
+   * before finished games were reset.  A state's Q-values start at its index times the nine
+   * cells in a QTable.  A board that can't arise in a game, as after an illegal move by the
+   * agent, has index -1.
+   */
+  public int[] getNextStateIndices() {
+    return nextStateIndices;
+  }
+
+  private double rewardForStatus(int status) {
+    if (status == TicTacToeRules.STATUS_X_WON) {
+      return opposingPlayerMark == TicTacToeState.X_MARK ? TicTacToeEnv.WIN_REWARD : TicTacToeEnv.LOSE_REWARD;
+    }
+    if (status == TicTacToeRules.STATUS_O_WON) {
+      return opposingPlayerMark == TicTacToeState.O_MARK ? TicTacToeEnv.WIN_REWARD : TicTacToeEnv.LOSE_REWARD;
+    }
+    return TicTacToeEnv.MOVE_REWARD;
+  }
+
+  /**
+   * Board at the start of a game, which has the environment player's first move when it plays X
+   */
+  private int startBoard() {
+    if (envPlayerMark == TicTacToeState.X_MARK) {
+      return TicTacToeState.withMark(0, OpponentPolicies.RANDOM_CELL.selectCell(0, envPlayerMark, random), envPlayerMark);
+    }
+    return 0;
+  }
+}
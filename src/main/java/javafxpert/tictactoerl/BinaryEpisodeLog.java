@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.mdp.core.state.State;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends episodes to a single binary log file, eight bytes per episode.  Each episode is
+ * packed into one little-endian long:<br>
+ *
+ * bits 0-35: the cells played, in order from the empty board, four bits per move<br>
+ * bits 36-39: number of moves<br>
+ * bits 40-41: terminal status, as a TicTacToeRules status code<br>
+ * bit 42: mark of the learning agent (0 for X, 1 for O)<br>
+ * bits 48-55: policy of the player embedded in the environment (see TicTacToeEnv.setAgentPolicy)<br>
+ *
+ * The file starts with an eight byte header (magic number and version).  Use
+ * BinaryEpisodeLogReader to read it back.  Appending is thread safe.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class BinaryEpisodeLog implements AutoCloseable {
+  static final int MAGIC = 0x54545445; // "TTTE"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 8;
+  static final int RECORD_BYTES = 8;
+
+  private static final int MOVE_COUNT_SHIFT = 36;
+  private static final int STATUS_SHIFT = 40;
+  private static final int AGENT_MARK_SHIFT = 42;
+  private static final int POLICY_SHIFT = 48;
+
+  private FileChannel channel;
+
+  private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+  /**
+   * Opens a log for appending, creating it if it does not exist
+   *
+   * @throws IllegalArgumentException if the file exists and is not a log of this version
+   */
+  public BinaryEpisodeLog(String path) {
+    try {
+      Path logPath = Paths.get(path);
+      if (logPath.getParent() != null) {
+        Files.createDirectories(logPath.getParent());
+      }
+      if (Files.exists(logPath) && Files.size(logPath) > 0) {
+        checkHeader(logPath);
+      }
+      channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+      if (channel.size() == 0) {
+        buffer.putInt(MAGIC).putInt(VERSION);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Check that the existing file starts with this version's header, so records are never
+   * appended to a foreign file or to a log that readers would parse differently
+   */
+  private static void checkHeader(Path path) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+      while (header.hasRemaining() && reader.read(header, header.position()) > 0) {
+      }
+    }
+    header.flip();
+    if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Not a binary episode log: " + path);
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported binary episode log version " + version + ": " + path);
+    }
+  }
+
+  /**
+   * Append an episode played against the given environment player policy
+   */
+  public synchronized void append(Episode episode, int opponentPolicy) {
+    if (!buffer.hasRemaining()) {
+      flush();
+    }
+    buffer.putLong(encode(episode, opponentPolicy));
+  }
+
+  /**
+   * Write out the buffered episodes
+   */
+  public synchronized void flush() {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public synchronized void close() {
+    flush();
+    try {
+      channel.close();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Pack an episode, which starts from an empty board or from one with a single
+   * environment player mark, into a record
+   */
+  public static long encode(Episode episode, int opponentPolicy) {
+    long record = 0;
+    int numMoves = 0;
+
+    // The agent plays O exactly when the environment player has already moved
+    int board = boardOf(episode.state(0));
+    long agentIsO = board != 0 ? 1 : 0;
+    if (board != 0) {
+      record |= (long)Integer.numberOfTrailingZeros(board & TicTacToeState.CELLS_MASK);
+      numMoves++;
+    }
+
+    for (int t = 0; t < episode.numActions(); t++) {
+      int agentCell = ((MoveAction)episode.action(t)).getActionId();
+      int nextBoard = boardOf(episode.state(t + 1));
+      record |= (long)agentCell << (4 * numMoves++);
+
+      int replyCells = TicTacToeState.emptyMask(board) & ~TicTacToeState.emptyMask(nextBoard) & ~(1 << agentCell);
+      if (replyCells != 0) {
+        record |= (long)Integer.numberOfTrailingZeros(replyCells) << (4 * numMoves++);
+      }
+      board = nextBoard;
+    }
+
+    return record |
+        ((long)numMoves << MOVE_COUNT_SHIFT) |
+        ((long)TicTacToeRules.status(board) << STATUS_SHIFT) |
+        (agentIsO << AGENT_MARK_SHIFT) |
+        ((long)(opponentPolicy & 0xFF) << POLICY_SHIFT);
+  }
+
+  /**
+   * Rebuild the Episode of a record, with rewards as given by TicTacToeEnv
+   */
+  public static Episode decode(long record) {
+    int numMoves = numMoves(record);
+    char agentMark = agentMark(record);
+    char envMark = agentMark == TicTacToeState.X_MARK ? TicTacToeState.O_MARK : TicTacToeState.X_MARK;
+
+    int board = 0;
+    int move = 0;
+    if (agentMark == TicTacToeState.O_MARK && numMoves > 0) {
+      board = TicTacToeState.withMark(board, move(record, move++), envMark);
+    }
+
+    Episode episode = new Episode(new TicTacToeState(board));
+    while (move < numMoves) {
+      int agentCell = move(record, move++);
+      board = TicTacToeState.withMark(board, agentCell, agentMark);
+      if (TicTacToeRules.status(board) == TicTacToeRules.STATUS_IN_PROGRESS && move < numMoves) {
+        board = TicTacToeState.withMark(board, move(record, move++), envMark);
+      }
+      episode.transition(MoveAction.of(agentCell), new TicTacToeState(board), rewardFor(board, agentMark));
+    }
+    return episode;
+  }
+
+  public static int numMoves(long record) {
+    return (int)(record >>> MOVE_COUNT_SHIFT) & 0xF;
+  }
+
+  /**
+   * Cell of the n-th (zero based) move of a record
+   */
+  public static int move(long record, int n) {
+    return (int)(record >>> (4 * n)) & 0xF;
+  }
+
+  /**
+   * Terminal status of a record, as a TicTacToeRules status code
+   */
+  public static int terminalStatus(long record) {
+    return (int)(record >>> STATUS_SHIFT) & 0x3;
+  }
+
+  public static char agentMark(long record) {
+    return ((record >>> AGENT_MARK_SHIFT) & 1) == 0 ? TicTacToeState.X_MARK : TicTacToeState.O_MARK;
+  }
+
+  public static int opponentPolicy(long record) {
+    return (int)(record >>> POLICY_SHIFT) & 0xFF;
+  }
+
+  private static int boardOf(State s) {
+    return ((TicTacToeState)s).getBoard();
+  }
+
+  private static double rewardFor(int board, char agentMark) {
+    int status = TicTacToeRules.status(board);
+    if (status == TicTacToeRules.STATUS_X_WON) {
+      return agentMark == TicTacToeState.X_MARK ? TicTacToeEnv.WIN_REWARD : TicTacToeEnv.LOSE_REWARD;
+    }
+    if (status == TicTacToeRules.STATUS_O_WON) {
+      return agentMark == TicTacToeState.O_MARK ? TicTacToeEnv.WIN_REWARD : TicTacToeEnv.LOSE_REWARD;
+    }
+    return TicTacToeEnv.MOVE_REWARD;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.singleagent.Episode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a log written by BinaryEpisodeLog through memory-mapped regions of the file, so that
+ * any episode can be read, or rebuilt as an Episode, without loading the whole log.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class BinaryEpisodeLogReader implements AutoCloseable {
+  /**
+   * Each mapped region holds 2^27 records (1 GB)
+   */
+  private static final int REGION_SHIFT = 27;
+  private static final long REGION_MASK = (1L << REGION_SHIFT) - 1;
+
+  private FileChannel channel;
+
+  private LongBuffer[] regions;
+
+  private long numEpisodes;
+
+  public BinaryEpisodeLogReader(String path) {
+    try {
+      channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+
+      ByteBuffer header = ByteBuffer.allocate(BinaryEpisodeLog.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+      }
+      header.flip();
+      if (header.remaining() < BinaryEpisodeLog.HEADER_BYTES || header.getInt() != BinaryEpisodeLog.MAGIC) {
+        throw new IllegalArgumentException("Not a binary episode log: " + path);
+      }
+      int version = header.getInt();
+      if (version != BinaryEpisodeLog.VERSION) {
+        throw new IllegalArgumentException("Unsupported binary episode log version " + version + ": " + path);
+      }
+
+      numEpisodes = (channel.size() - BinaryEpisodeLog.HEADER_BYTES) / BinaryEpisodeLog.RECORD_BYTES;
+      int numRegions = (int)((numEpisodes + REGION_MASK) >>> REGION_SHIFT);
+      regions = new LongBuffer[numRegions];
+      for (int i = 0; i < numRegions; i++) {
+        long firstRecord = (long)i << REGION_SHIFT;
+        long regionRecords = Math.min(numEpisodes - firstRecord, 1L << REGION_SHIFT);
+        regions[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+            BinaryEpisodeLog.HEADER_BYTES + firstRecord * BinaryEpisodeLog.RECORD_BYTES,
+            regionRecords * BinaryEpisodeLog.RECORD_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public long size() {
+    return numEpisodes;
+  }
+
+  /**
+   * Packed record of an episode, to be read with the BinaryEpisodeLog accessors
+   */
+  public long record(long index) {
+    return regions[(int)(index >>> REGION_SHIFT)].get((int)(index & REGION_MASK));
+  }
+
+  /**
+   * Rebuild an episode
+   */
+  public Episode episode(long index) {
+    return BinaryEpisodeLog.decode(record(index));
+  }
+
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.policy.EnumerablePolicy;
+import burlap.behavior.policy.support.ActionProb;
+import burlap.behavior.policy.support.PolicyUndefinedException;
+import burlap.behavior.valuefunction.QProvider;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Greedy policy of a trained agent, compiled into the best cell for every reachable board
+ * (see TicTacToeStateIndex) so that choosing a move is two array reads.  Compiling asks the
+ * agent for the Q-value of every move on every in-progress board, and ties go to the lowest cell.
+ *
+ * A compiled policy is saved with a hash of the Q-values it was compiled from, so a saved
+ * policy can be checked before it is reused.  When the agent's Q-table is checkpointed, the
+ * checkpoint's content hash (see QTableCheckpoint.readContentHash) can be used as the source
+ * hash, which is checked without reading any Q-values.  Otherwise the hash is computed from
+ * the agent's Q-values, which costs about as much as compiling again.  The file
+ * is a little-endian header (magic number, version, source hash) followed by one byte per
+ * reachable board.  Version 1 files, with one byte per base-3 board encoding, can still be loaded.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class CompiledPolicy implements EnumerablePolicy, OpponentPolicy {
+  static final int MAGIC = 0x54545450; // "TTTP"
+  static final int VERSION = 2;
+  static final int HEADER_BYTES = 16;
+
+  /**
+   * Best cell entry for boards that have no move, because the game is over or the board
+   * can't be reached
+   */
+  public static final int NO_MOVE = -1;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  /**
+   * Best cell for each reachable board, by TicTacToeStateIndex, or NO_MOVE
+   */
+  private byte[] bestCells;
+
+  private long sourceHash;
+
+  private CompiledPolicy(byte[] bestCells, long sourceHash) {
+    this.bestCells = bestCells;
+    this.sourceHash = sourceHash;
+  }
+
+  /**
+   * Compile the greedy policy of an agent, such as a TabularQLearning or a QLearning.  Note
+   * that a QLearning agent adds a Q-table entry for each board it hasn't seen yet.
+   */
+  public static CompiledPolicy compile(QProvider qProvider) {
+    byte[] bestCells = new byte[TicTacToeStateIndex.NUM_POSITIONS];
+    long hash = scan(qProvider, bestCells);
+    return new CompiledPolicy(bestCells, hash);
+  }
+
+  /**
+   * Compile the greedy policy of an agent, recording a hash that identifies its Q-values, such
+   * as the content hash of the checkpoint they were loaded from or saved to, as the source hash
+   */
+  public static CompiledPolicy compile(QProvider qProvider, long sourceHash) {
+    byte[] bestCells = new byte[TicTacToeStateIndex.NUM_POSITIONS];
+    scan(qProvider, bestCells);
+    return new CompiledPolicy(bestCells, sourceHash);
+  }
+
+  /**
+   * Hash of the Q-values that compiling an agent would read
+   */
+  public static long sourceHash(QProvider qProvider) {
+    return scan(qProvider, null);
+  }
+
+  /**
+   * Whether this policy was compiled from Q-values identical to those of an agent, by reading
+   * all of them.  Only for policies compiled with compile(QProvider).
+   */
+  public boolean isCompiledFrom(QProvider qProvider) {
+    return sourceHash == sourceHash(qProvider);
+  }
+
+  /**
+   * Whether this policy was compiled from the Q-values a source hash identifies, for example
+   * the content hash of a Q-table checkpoint
+   */
+  public boolean isCompiledFrom(long sourceHash) {
+    return this.sourceHash == sourceHash;
+  }
+
+  public long getSourceHash() {
+    return sourceHash;
+  }
+
+  /**
+   * Best cell for a packed board, or NO_MOVE
+   */
+  public int bestCell(int board) {
+    int position = TicTacToeStateIndex.index(board);
+    return position < 0 ? NO_MOVE : bestCells[position];
+  }
+
+  @Override
+  public int selectCell(int board, char mark, SplittableRandom random) {
+    return bestCell(board);
+  }
+
+  @Override
+  public Action action(State s) {
+    int cell = bestCell(((TicTacToeState)s).getBoard());
+    if (cell == NO_MOVE) {
+      throw new PolicyUndefinedException();
+    }
+    return MoveAction.of(cell);
+  }
+
+  @Override
+  public double actionProb(State s, Action a) {
+    return bestCell(((TicTacToeState)s).getBoard()) == ((MoveAction)a).getActionId() ? 1.0 : 0.0;
+  }
+
+  @Override
+  public List<ActionProb> policyDistribution(State s) {
+    return Collections.singletonList(new ActionProb(action(s), 1.0));
+  }
+
+  @Override
+  public boolean definedFor(State s) {
+    return bestCell(((TicTacToeState)s).getBoard()) != NO_MOVE;
+  }
+
+  public void save(String path) {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bestCells.length).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(sourceHash).put(bestCells);
+    try {
+      Path policyPath = Paths.get(path);
+      if (policyPath.getParent() != null) {
+        Files.createDirectories(policyPath.getParent());
+      }
+      Files.write(policyPath, buffer.array());
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static CompiledPolicy load(String path) {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path))).order(ByteOrder.LITTLE_ENDIAN);
+      if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+        throw new IOException(path + " is not a compiled policy");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION && version != 1) {
+        throw new IOException("Unsupported compiled policy version " + version);
+      }
+      long sourceHash = buffer.getLong();
+      int numEntries = version == 1 ? TicTacToeRules.NUM_ENCODINGS : TicTacToeStateIndex.NUM_POSITIONS;
+      if (buffer.remaining() != numEntries) {
+        throw new IOException(path + " is truncated");
+      }
+      byte[] bestCells = new byte[TicTacToeStateIndex.NUM_POSITIONS];
+      for (int position = 0; position < bestCells.length; position++) {
+        int entry = version == 1 ? TicTacToeRules.encode(TicTacToeStateIndex.board(position)) : position;
+        bestCells[position] = buffer.get(HEADER_BYTES + entry);
+      }
+      return new CompiledPolicy(bestCells, sourceHash);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Read the Q-values of every move on every legal in-progress board, filling in the best
+   * cells if bestCells isn't null, and return their FNV-1a hash
+   */
+  private static long scan(QProvider qProvider, byte[] bestCells) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int position = 0; position < TicTacToeStateIndex.NUM_POSITIONS; position++) {
+      int board = TicTacToeStateIndex.board(position);
+      int bestCell = NO_MOVE;
+      if (TicTacToeRules.status(board) == TicTacToeRules.STATUS_IN_PROGRESS) {
+        TicTacToeState state = new TicTacToeState(board);
+        double max = Double.NEGATIVE_INFINITY;
+        for (int empty = TicTacToeState.emptyMask(board); empty != 0; empty &= empty - 1) {
+          int cell = Integer.numberOfTrailingZeros(empty);
+          double q = qProvider.qValue(state, MoveAction.of(cell));
+          if (q > max) {
+            max = q;
+            bestCell = cell;
+          }
+          long bits = Double.doubleToLongBits(q);
+          for (int i = 0; i < 8; i++) {
+            hash = (hash ^ ((bits >>> (i * 8)) & 0xFF)) * FNV_PRIME;
+          }
+        }
+      }
+      if (bestCells != null) {
+        bestCells[position] = (byte)bestCell;
+      }
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.mdp.core.state.State;
+import burlap.visualizer.StateRenderLayer;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Renders recorded episodes, without a display, to PNG strips with one frame per state of
+ * the episode from left to right, separated by gray gaps, for example as thumbnails for reviewing training.  Episodes
+ * are rendered in parallel on all cores, each thread with its own TicTacToeWorld painters so
+ * that their cached sprites are reused from frame to frame.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class EpisodeImageExporter {
+  public static String IMAGE_PREFIX = "episode_";
+  public static String IMAGE_EXTENSION = ".png";
+
+  /**
+   * Pixels between frames
+   */
+  private static int FRAME_GAP = 8;
+
+  /**
+   * Width and height in pixels of each frame
+   */
+  private int frameSize;
+
+  private ThreadLocal<StateRenderLayer> renderLayers =
+      ThreadLocal.withInitial(() -> new TicTacToeWorld().getStateRenderLayer());
+
+  public EpisodeImageExporter(int frameSize) {
+    if (frameSize < 1) {
+      throw new IllegalArgumentException("Frame size must be positive: " + frameSize);
+    }
+    this.frameSize = frameSize;
+  }
+
+  /**
+   * Write one PNG strip per episode to a directory, named by the episode's position in the list
+   */
+  public void export(List<Episode> episodes, String outputPath) {
+    Path outputDirectory = Paths.get(outputPath);
+    try {
+      Files.createDirectories(outputDirectory);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    IntStream.range(0, episodes.size()).parallel().forEach(i -> {
+      Path image = outputDirectory.resolve(String.format("%s%05d%s", IMAGE_PREFIX, i, IMAGE_EXTENSION));
+      try {
+        ImageIO.write(render(episodes.get(i)), "png", image.toFile());
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * Strip of the frames of an episode, one for each state from left to right
+   */
+  public BufferedImage render(Episode episode) {
+    List<State> states = episode.stateSequence;
+    int stripWidth = (frameSize + FRAME_GAP) * states.size() - FRAME_GAP;
+    BufferedImage strip = new BufferedImage(Math.max(1, stripWidth), frameSize, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2 = strip.createGraphics();
+    g2.setColor(Color.LIGHT_GRAY);
+    g2.fillRect(0, 0, strip.getWidth(), strip.getHeight());
+    g2.setColor(Color.WHITE);
+    for (int frame = 0; frame < states.size(); frame++) {
+      g2.fillRect(frame * (frameSize + FRAME_GAP), 0, frameSize, frameSize);
+    }
+
+    StateRenderLayer renderLayer = renderLayers.get();
+    for (State state : states) {
+      renderLayer.updateState(state);
+      renderLayer.render(g2, frameSize, frameSize);
+      g2.translate(frameSize + FRAME_GAP, 0);
+    }
+    g2.dispose();
+    return strip;
+  }
+
+  /**
+   * Renders the episodes recorded by EpisodeRecorder in a directory (default output/) to
+   * another directory (default output/frames/)
+   */
+  public static void main(String[] args) {
+    System.setProperty("java.awt.headless", "true");
+    String inputPath = args.length > 0 ? args[0] : "output/";
+    String outputPath = args.length > 1 ? args[1] : "output/frames/";
+
+    List<Episode> episodes = EpisodeRecorder.readEpisodes(inputPath);
+    long startTime = System.nanoTime();
+    new EpisodeImageExporter(96).export(episodes, outputPath);
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    System.out.println(episodes.size() + " episodes rendered to " + outputPath + " in " + seconds + " s");
+  }
+}
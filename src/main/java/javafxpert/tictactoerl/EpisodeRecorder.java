@@ -0,0 +1,332 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.singleagent.Episode;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.AbstractConstruct;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.representer.Represent;
+import org.yaml.snakeyaml.representer.Representer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records episodes on a background writer thread, so that training threads never block on disk.
+ * Episodes are handed over through a bounded queue, and are dropped (and counted) if the queue
+ * is full.  The writer serializes them in batches into a few rolling YAML segment files in the
+ * output directory, and can record just one in every N episodes.
+ *
+ * MoveActions are written as a scalar cell number and read back as the shared instances of
+ * MoveAction.of.  Segments written with an actionId mapping are read as well.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class EpisodeRecorder implements AutoCloseable {
+  public static String SEGMENT_PREFIX = "episodes_";
+  public static String SEGMENT_EXTENSION = ".yaml";
+
+  private static String DOCUMENT_SEPARATOR = "---";
+  private static int MAX_BATCH_SIZE = 256;
+
+  private static Tag MOVE_ACTION_TAG = new Tag(MoveAction.class);
+
+  private Path outputDirectory;
+
+  /**
+   * Number of episodes written to a segment file before rolling over to the next one
+   */
+  private int episodesPerSegment;
+
+  /**
+   * Only one in every sampleEvery episodes is recorded
+   */
+  private int sampleEvery;
+
+  private BlockingQueue<Episode> queue;
+
+  private AtomicLong sampleCounter = new AtomicLong();
+
+  private LongAdder droppedCount = new LongAdder();
+
+  private LongAdder writtenCount = new LongAdder();
+
+  private volatile boolean closed = false;
+
+  private volatile IOException writeFailure;
+
+  private Thread writerThread;
+
+  private BufferedWriter segmentWriter;
+
+  private int segmentIndex = 0;
+
+  private int segmentEpisodeCount = 0;
+
+  /**
+   * YAML serializer, used by the writer thread only
+   */
+  private Yaml yaml = newYaml();
+
+  public EpisodeRecorder(String outputPath) {
+    this(outputPath, 1, 8192, 10000);
+  }
+
+  /**
+   * Creates a recorder that starts a new recording in the output directory, replacing any
+   * segment files from an earlier one
+   *
+   * @param outputPath Directory that segment files are written to
+   * @param sampleEvery Only one in every sampleEvery episodes is recorded
+   * @param queueCapacity Number of episodes that may wait for the writer before new ones are dropped
+   * @param episodesPerSegment Number of episodes per segment file
+   */
+  public EpisodeRecorder(String outputPath, int sampleEvery, int queueCapacity, int episodesPerSegment) {
+    this.outputDirectory = Paths.get(outputPath);
+    this.sampleEvery = sampleEvery;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.episodesPerSegment = episodesPerSegment;
+
+    try {
+      Files.createDirectories(outputDirectory);
+      for (Path segment : segmentFiles(outputDirectory)) {
+        Files.delete(segment);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    writerThread = new Thread(this::writeEpisodes, "episode-recorder");
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * Hand an episode to the writer thread, without blocking.  The episode must not be modified afterwards.
+   *
+   * @return true if the episode was queued, false if it was skipped by sampling or dropped because the queue is full
+   */
+  public boolean record(Episode episode) {
+    if (closed || sampleCounter.getAndIncrement() % sampleEvery != 0) {
+      return false;
+    }
+    if (!queue.offer(episode)) {
+      droppedCount.increment();
+      return false;
+    }
+    if (closed && queue.remove(episode)) {
+      // close began after the check above, and the writer may already have stopped, so the
+      // episode would never be written.  If it can't be removed, the writer has taken it.
+      droppedCount.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Number of sampled episodes that were dropped because the writer fell behind, or because
+   * they were recorded while the recorder was closing
+   */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  public long getWrittenCount() {
+    return writtenCount.sum();
+  }
+
+  /**
+   * Write out the episodes that are still queued, and stop the writer thread
+   */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      writerThread.join();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (writeFailure != null) {
+      throw new UncheckedIOException(writeFailure);
+    }
+  }
+
+  private void writeEpisodes() {
+    List<Episode> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    try {
+      while (!closed || !queue.isEmpty()) {
+        Episode episode = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (episode == null) {
+          continue;
+        }
+        batch.add(episode);
+        queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+        writeBatch(batch);
+        batch.clear();
+      }
+      if (segmentWriter != null) {
+        segmentWriter.close();
+      }
+    }
+    catch (IOException e) {
+      writeFailure = e;
+      closed = true;
+      queue.clear();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeBatch(List<Episode> batch) throws IOException {
+    for (Episode episode : batch) {
+      if (segmentWriter == null || segmentEpisodeCount >= episodesPerSegment) {
+        rollSegment();
+      }
+      segmentWriter.write(DOCUMENT_SEPARATOR);
+      segmentWriter.newLine();
+      segmentWriter.write(yaml.dump(episode));
+      segmentEpisodeCount++;
+    }
+    segmentWriter.flush();
+    writtenCount.add(batch.size());
+  }
+
+  private void rollSegment() throws IOException {
+    if (segmentWriter != null) {
+      segmentWriter.close();
+      segmentIndex++;
+    }
+    Path segment = outputDirectory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_EXTENSION));
+    segmentWriter = Files.newBufferedWriter(segment, StandardCharsets.UTF_8);
+    segmentEpisodeCount = 0;
+  }
+
+  /**
+   * Read back every episode in the segment files of a directory, in recording order
+   */
+  public static List<Episode> readEpisodes(String outputPath) {
+    List<Episode> episodes = new ArrayList<>();
+    Yaml yaml = newYaml();
+    try {
+      for (Path segment : segmentFiles(Paths.get(outputPath))) {
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+          StringBuilder document = new StringBuilder();
+          String line;
+          while ((line = reader.readLine()) != null) {
+            if (line.equals(DOCUMENT_SEPARATOR)) {
+              if (document.length() > 0) {
+                episodes.add((Episode)yaml.load(document.toString()));
+                document.setLength(0);
+              }
+            }
+            else {
+              document.append(line).append('\n');
+            }
+          }
+          if (document.length() > 0) {
+            episodes.add((Episode)yaml.load(document.toString()));
+          }
+        }
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return episodes;
+  }
+
+  /**
+   * Segment files of a directory, sorted by name
+   */
+  private static List<Path> segmentFiles(Path directory) throws IOException {
+    List<Path> segments = new ArrayList<>();
+    if (!Files.isDirectory(directory)) {
+      return segments;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION)) {
+      for (Path segment : stream) {
+        segments.add(segment);
+      }
+    }
+    segments.sort(null);
+    return segments;
+  }
+
+  private static Yaml newYaml() {
+    return new Yaml(new EpisodeConstructor(), new EpisodeRepresenter());
+  }
+
+  private static class EpisodeRepresenter extends Representer {
+    EpisodeRepresenter() {
+      this.representers.put(MoveAction.class, new RepresentMoveAction());
+    }
+
+    private class RepresentMoveAction implements Represent {
+      @Override
+      public Node representData(Object data) {
+        return representScalar(MOVE_ACTION_TAG, Integer.toString(((MoveAction)data).getActionId()));
+      }
+    }
+  }
+
+  private static class EpisodeConstructor extends Constructor {
+    EpisodeConstructor() {
+      this.yamlConstructors.put(MOVE_ACTION_TAG, new ConstructMoveAction());
+    }
+
+    private class ConstructMoveAction extends AbstractConstruct {
+      @Override
+      public Object construct(Node node) {
+        if (node instanceof ScalarNode) {
+          return MoveAction.of(Integer.parseInt(((ScalarNode)node).getValue()));
+        }
+        if (node instanceof MappingNode) {
+          for (NodeTuple tuple : ((MappingNode)node).getValue()) {
+            if (tuple.getKeyNode() instanceof ScalarNode && tuple.getValueNode() instanceof ScalarNode &&
+                ((ScalarNode)tuple.getKeyNode()).getValue().equals("actionId")) {
+              return MoveAction.of(Integer.parseInt(((ScalarNode)tuple.getValueNode()).getValue()));
+            }
+          }
+        }
+        throw new YAMLException("MoveAction without a cell number: " + node.getStartMark());
+      }
+    }
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * Experience replay for TabularQLearning (see TabularQLearning.setExperienceReplay).  Every
+ * transition the learner makes is stored in a ReplayBuffer, and after each step a mini-batch
+ * of stored transitions is sampled and replayed as Q-learning updates, so each transition is
+ * learned from many times.
+ *
+ * Sampling is uniform, or proportional to TD error when created with a priority exponent
+ * (prioritized experience replay).  Prioritized sampling keeps sum and min trees of the
+ * priorities off the heap, gives new transitions the largest priority seen so far, and
+ * scales each update by its normalized importance-sampling weight.  Not thread safe.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class ExperienceReplay {
+  /**
+   * Added to TD errors so that no transition's priority is zero
+   */
+  private static final double PRIORITY_EPSILON = 1e-3;
+
+  private ReplayBuffer buffer;
+
+  private int batchSize;
+
+  private boolean prioritized;
+
+  /**
+   * Exponent applied to TD errors to get priorities (0 is uniform)
+   */
+  private double alpha;
+
+  /**
+   * Exponent of the importance-sampling weights (1 fully corrects for prioritized sampling)
+   */
+  private double beta;
+
+  /**
+   * Number of leaves of the priority trees, the capacity rounded up to a power of two
+   */
+  private int numLeaves;
+
+  /**
+   * Sum of the priorities under each node, with the root at 1 and the leaves from numLeaves
+   */
+  private DoubleBuffer sumTree;
+
+  /**
+   * Smallest priority under each node, laid out like sumTree
+   */
+  private DoubleBuffer minTree;
+
+  private double maxPriority = 1.0;
+
+  private long replayCount = 0;
+
+  /**
+   * Stream that replayed transitions are sampled with
+   */
+  private SplittableRandom random = new SplittableRandom();
+
+  /**
+   * Creates uniform experience replay
+   *
+   * @param capacity Number of transitions kept
+   * @param batchSize Number of transitions replayed after each step
+   */
+  public ExperienceReplay(int capacity, int batchSize) {
+    this.buffer = new ReplayBuffer(capacity);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Creates prioritized experience replay
+   *
+   * @param capacity Number of transitions kept
+   * @param batchSize Number of transitions replayed after each step
+   * @param alpha Exponent applied to TD errors to get priorities, for example 0.6
+   * @param beta Exponent of the importance-sampling weights, for example 0.4
+   */
+  public ExperienceReplay(int capacity, int batchSize, double alpha, double beta) {
+    this(capacity, batchSize);
+    this.prioritized = true;
+    this.alpha = alpha;
+    this.beta = beta;
+    this.numLeaves = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.sumTree = ByteBuffer.allocateDirect(2 * numLeaves * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    this.minTree = ByteBuffer.allocateDirect(2 * numLeaves * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    for (int node = 0; node < 2 * numLeaves; node++) {
+      minTree.put(node, Double.POSITIVE_INFINITY);
+    }
+  }
+
+  public ReplayBuffer getBuffer() {
+    return buffer;
+  }
+
+  public boolean isPrioritized() {
+    return prioritized;
+  }
+
+  /**
+   * Sample replayed transitions with the given stream, for example one split from a seeded root
+   */
+  public void setRandom(SplittableRandom random) {
+    this.random = random;
+  }
+
+  /**
+   * Number of transitions replayed so far
+   */
+  public long getReplayCount() {
+    return replayCount;
+  }
+
+  /**
+   * Store a transition
+   */
+  public void add(int board, int cell, double reward, int nextBoard, boolean terminal) {
+    int slot = buffer.add(board, cell, reward, nextBoard, terminal);
+    if (prioritized) {
+      setPriority(slot, maxPriority);
+    }
+  }
+
+  /**
+   * Replay a mini-batch of stored transitions as Q-learning updates to a table
+   */
+  public void replay(QTable qTable, double gamma, double learningRate) {
+    int size = buffer.size();
+    if (size == 0) {
+      return;
+    }
+    double maxWeight = prioritized ? Math.pow(size * minTree.get(1) / sumTree.get(1), -beta) : 1.0;
+    for (int i = 0; i < batchSize; i++) {
+      int slot;
+      double rate = learningRate;
+      if (prioritized) {
+        slot = sampleProportional(random.nextDouble() * sumTree.get(1));
+        double probability = sumTree.get(numLeaves + slot) / sumTree.get(1);
+        rate *= Math.pow(size * probability, -beta) / maxWeight;
+      }
+      else {
+        slot = random.nextInt(size);
+      }
+
+      int board = buffer.board(slot);
+      int nextBoard = buffer.nextBoard(slot);
+      double maxQ = buffer.terminal(slot) ? 0. : maxQ(qTable, nextBoard);
+      int index = QTable.baseIndex(board) + buffer.cell(slot);
+      double target = buffer.reward(slot) + gamma * maxQ;
+      double tdError = target - qTable.get(index);
+      qTable.update(index, rate, target);
+
+      if (prioritized) {
+        double priority = Math.pow(Math.abs(tdError) + PRIORITY_EPSILON, alpha);
+        setPriority(slot, priority);
+        if (priority > maxPriority) {
+          maxPriority = priority;
+        }
+      }
+    }
+    replayCount += batchSize;
+  }
+
+  /**
+   * Largest Q-value among the empty cells of a packed board
+   */
+  private static double maxQ(QTable qTable, int board) {
+    int base = QTable.baseIndex(board);
+    double max = Double.NEGATIVE_INFINITY;
+    for (int empty = TicTacToeState.emptyMask(board); empty != 0; empty &= empty - 1) {
+      double q = qTable.get(base + Integer.numberOfTrailingZeros(empty));
+      if (q > max) {
+        max = q;
+      }
+    }
+    return max;
+  }
+
+  private void setPriority(int slot, double priority) {
+    int node = numLeaves + slot;
+    sumTree.put(node, priority);
+    minTree.put(node, priority);
+    for (node >>>= 1; node >= 1; node >>>= 1) {
+      sumTree.put(node, sumTree.get(2 * node) + sumTree.get(2 * node + 1));
+      minTree.put(node, Math.min(minTree.get(2 * node), minTree.get(2 * node + 1)));
+    }
+  }
+
+  /**
+   * Slot whose priority range contains a point in [0, total priority)
+   */
+  private int sampleProportional(double point) {
+    int node = 1;
+    while (node < numLeaves) {
+      double left = sumTree.get(2 * node);
+      if (point < left) {
+        node = 2 * node;
+      }
+      else {
+        point -= left;
+        node = 2 * node + 1;
+      }
+    }
+    return Math.min(node - numLeaves, buffer.size() - 1);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.util.SplittableRandom;
+
+/**
+ * Opponent that plays greedily on a frozen copy of a learned Q-table.  The Q-values are
+ * copied when the opponent is created, so later learning does not change how it plays.
+ * It plays best when it has the mark the table was learned for.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class FrozenQTableOpponent implements OpponentPolicy {
+  private double[] qValues = new double[QTable.SIZE];
+
+  public FrozenQTableOpponent(QTable qTable) {
+    for (int i = 0; i < qValues.length; i++) {
+      qValues[i] = qTable.get(i);
+    }
+  }
+
+  @Override
+  public int selectCell(int board, char mark, SplittableRandom random) {
+    return bestCell(board);
+  }
+
+  /**
+   * Empty cell of a packed board with the largest frozen Q-value
+   */
+  public int bestCell(int board) {
+    int base = QTable.baseIndex(board);
+    double max = Double.NEGATIVE_INFINITY;
+    int bestCell = -1;
+    for (int empty = TicTacToeState.emptyMask(board); empty != 0; empty &= empty - 1) {
+      int cell = Integer.numberOfTrailingZeros(empty);
+      if (qValues[base + cell] > max) {
+        max = qValues[base + cell];
+        bestCell = cell;
+      }
+    }
+    return bestCell;
+  }
+}
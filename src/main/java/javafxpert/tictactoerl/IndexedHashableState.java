@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableState;
+
+/**
+ * HashableState whose hash code is its board's TicTacToeStateIndex index, so that hashing is
+ * an int read and equality is an int compare.  Boards that can't arise in a game hash by
+ * the negated base-3 encoding instead, which still identifies them uniquely.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class IndexedHashableState implements HashableState {
+  private TicTacToeState state;
+
+  private int index;
+
+  public IndexedHashableState(TicTacToeState state, int index) {
+    this.state = state;
+    this.index = index;
+  }
+
+  /**
+   * Index of the board (see TicTacToeStateIndex), or a negative number for boards that
+   * can't arise in a game
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  @Override
+  public State s() {
+    return state;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if(this == o) return true;
+    if(o == null || getClass() != o.getClass()) return false;
+
+    return index == ((IndexedHashableState)o).index;
+  }
+
+  @Override
+  public int hashCode() {
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return state.toString();
+  }
+}
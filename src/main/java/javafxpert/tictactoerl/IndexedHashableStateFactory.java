@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+
+/**
+ * HashableStateFactory that identifies each TicTacToeState by its TicTacToeStateIndex index.
+ * The HashableStates of the reachable boards are created once and shared, so hashing a state
+ * is two table lookups and allocates nothing.  The shared HashableStates hold their own
+ * TicTacToeState, which must not be modified.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class IndexedHashableStateFactory implements HashableStateFactory {
+  private static final IndexedHashableState[] HASHED = new IndexedHashableState[TicTacToeStateIndex.NUM_POSITIONS];
+
+  static {
+    for (int index = 0; index < HASHED.length; index++) {
+      HASHED[index] = new IndexedHashableState(new TicTacToeState(TicTacToeStateIndex.board(index)), index);
+    }
+  }
+
+  @Override
+  public HashableState hashState(State s) {
+    int board = ((TicTacToeState)s).getBoard();
+    int index = TicTacToeStateIndex.index(board);
+    if (index == -1) {
+      return new IndexedHashableState((TicTacToeState)s, -1 - TicTacToeRules.encode(board));
+    }
+    return HASHED[index];
+  }
+}
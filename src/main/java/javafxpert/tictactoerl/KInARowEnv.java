@@ -0,0 +1,287 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.extensions.EnvironmentObserver;
+import burlap.mdp.singleagent.environment.extensions.EnvironmentServerInterface;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Environment for k-in-a-row games (see KInARowRules), which plays like TicTacToeEnv: the
+ * learning agent plays one mark, and a player embedded in the environment responds with the
+ * other.  Rewards are those of TicTacToeEnv.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class KInARowEnv implements Environment, EnvironmentServerInterface {
+  private KInARowRules rules;
+
+  private long xCells;
+
+  private long oCells;
+
+  /**
+   * Indicates whether the the game is in the terminal state
+   */
+  private boolean terminated = false;
+
+  /**
+   * Reward given for the current action
+   */
+  private int reward = 0;
+
+  /**
+   * Policy of the player embedded in the environment.  See setAgentPolicy for the built-in policies.
+   */
+  private OpponentPolicy opponentPolicy = OpponentPolicies.forId(4);
+
+  /**
+   * Stream that the environment player's random moves are drawn from
+   */
+  private SplittableRandom random = new SplittableRandom();
+
+  /**
+   * Most recent state, to be returned by currentObservation() method
+   */
+  KInARowState currentObservationState;
+
+  protected List<EnvironmentObserver> observers = new LinkedList<EnvironmentObserver>();
+
+  /**
+   * Mark that the player embedded in the environment plays
+   */
+  private char envPlayerMark = TicTacToeState.O_MARK;
+
+  /**
+   * Mark that the opposing player plays
+   */
+  private char opposingPlayerMark = TicTacToeState.X_MARK;
+
+  public KInARowEnv(KInARowRules rules) {
+    this.rules = rules;
+    resetEnvironment();
+  }
+
+  public KInARowRules getRules() {
+    return rules;
+  }
+
+  public char getEnvironmentPlayerMark() {
+    return envPlayerMark;
+  }
+
+  public char getAgentPlayerMark() {
+    return opposingPlayerMark;
+  }
+
+  /**
+   * Sets the policy for the player embedded in the environment to one of OpponentPolicies,
+   * numbered as for TicTacToeEnv.setAgentPolicy:<br>
+   *
+   * 0 plays the first empty cell<br>
+   *
+   * 1 plays a random empty cell<br>
+   *
+   * 2 plays randomly except when it can block the opposing player's k-in-a-row<br>
+   *
+   * 3 plays randomly except when it can complete its own k-in-a-row, or block the opposing player's<br>
+   *
+   * 4 (the default, also used for unknown numbers) is like 3, but prefers the center and corner
+   * cells over the others<br>
+   *
+   * 5 plays perfectly, on the 3x3 board only<br>
+   *
+   * @throws IllegalArgumentException if the policy can't play this environment's board
+   */
+  public void setAgentPolicy(int policy) {
+    setOpponentPolicy(OpponentPolicies.forId(policy));
+  }
+
+  /**
+   * @return The number of the built-in policy of the player embedded in the environment,
+   * or -1 if another policy was set through setOpponentPolicy
+   */
+  public int getAgentPolicy() {
+    return OpponentPolicies.idOf(opponentPolicy);
+  }
+
+  /**
+   * Sets the policy for the player embedded in the environment
+   *
+   * @throws IllegalArgumentException if the policy can't play this environment's board
+   */
+  public void setOpponentPolicy(OpponentPolicy opponentPolicy) {
+    if (!opponentPolicy.supports(rules)) {
+      throw new IllegalArgumentException(opponentPolicy.getClass().getSimpleName() + " can't play " + rules);
+    }
+    this.opponentPolicy = opponentPolicy;
+  }
+
+  public OpponentPolicy getOpponentPolicy() {
+    return opponentPolicy;
+  }
+
+  /**
+   * Draw the random moves of the environment player from the given stream, for example one
+   * split from a seeded root so that a run can be repeated
+   */
+  public void setRandom(SplittableRandom random) {
+    this.random = random;
+  }
+
+  public SplittableRandom getRandom() {
+    return random;
+  }
+
+  /**
+   * Indicate to the environment which mark it will play as (X or O)
+   */
+  public void setEnvPlayerMark(char envPlayerMark) {
+    this.envPlayerMark = envPlayerMark;
+    opposingPlayerMark = envPlayerMark == TicTacToeState.X_MARK ? TicTacToeState.O_MARK : TicTacToeState.X_MARK;
+    resetEnvironment();
+  }
+
+  @Override
+  public void resetEnvironment() {
+    xCells = 0;
+    oCells = 0;
+    if (envPlayerMark == TicTacToeState.X_MARK) {
+      xCells = 1L << randomCell(rules.getCellsMask());
+    }
+    currentObservationState = new KInARowState(rules, xCells, oCells);
+    terminated = false;
+
+    for (EnvironmentObserver observer : observers) {
+      observer.observeEnvironmentReset(this);
+    }
+  }
+
+  @Override
+  public void addObservers(EnvironmentObserver... observers) {
+    for(EnvironmentObserver o : observers){
+      this.observers.add(o);
+    }
+  }
+
+  @Override
+  public void clearAllObservers() {
+    this.observers.clear();
+  }
+
+  @Override
+  public void removeObservers(EnvironmentObserver... observers) {
+    for(EnvironmentObserver o : observers){
+      this.observers.remove(o);
+    }
+  }
+
+  @Override
+  public List<EnvironmentObserver> observers() {
+    return this.observers;
+  }
+
+  @Override
+  public State currentObservation() {
+    return currentObservationState;
+  }
+
+  @Override
+  public EnvironmentOutcome executeAction(Action action) {
+    for (EnvironmentObserver observer : observers) {
+      observer.observeEnvironmentActionInitiation(currentObservationState, action);
+    }
+
+    KInARowState priorState = currentObservationState;
+
+    // actionId is the same as the cell number of the move
+    int cellNum = ((MoveAction)action).getActionId();
+    long empty = emptyCells();
+    if (cellNum < 0 || cellNum >= rules.getNumCells() || (empty & (1L << cellNum)) == 0) {
+      // Illegal move attempted so don't change
+      System.out.println("Illegal move attempted to cell " + cellNum);
+    }
+    else {
+      playCell(cellNum, opposingPlayerMark);
+    }
+
+    int status = rules.status(xCells, oCells);
+    if (status == TicTacToeRules.STATUS_IN_PROGRESS) {
+      int envCell = opponentPolicy.selectCell(rules, xCells, oCells, envPlayerMark, random);
+      if (envCell < 0 || envCell >= rules.getNumCells() || (emptyCells() & (1L << envCell)) == 0) {
+        throw new IllegalStateException("Environment player policy chose illegal cell " + envCell);
+      }
+      playCell(envCell, envPlayerMark);
+      status = rules.status(xCells, oCells);
+    }
+
+    terminated = status != TicTacToeRules.STATUS_IN_PROGRESS;
+    if (status == TicTacToeRules.STATUS_X_WON) {
+      reward = opposingPlayerMark == TicTacToeState.X_MARK ? TicTacToeEnv.WIN_REWARD : TicTacToeEnv.LOSE_REWARD;
+    }
+    else if (status == TicTacToeRules.STATUS_O_WON) {
+      reward = opposingPlayerMark == TicTacToeState.O_MARK ? TicTacToeEnv.WIN_REWARD : TicTacToeEnv.LOSE_REWARD;
+    }
+    else {
+      reward = TicTacToeEnv.MOVE_REWARD;
+    }
+
+    currentObservationState = new KInARowState(rules, xCells, oCells);
+
+    EnvironmentOutcome environmentOutcome =
+        new EnvironmentOutcome(priorState, action, currentObservationState.copy(), reward, terminated);
+
+    for (EnvironmentObserver observer : observers) {
+      observer.observeEnvironmentInteraction(environmentOutcome);
+    }
+
+    return environmentOutcome;
+  }
+
+  @Override
+  public double lastReward() {
+    return reward;
+  }
+
+  @Override
+  public boolean isInTerminalState() {
+    return terminated;
+  }
+
+  private long emptyCells() {
+    return ~(xCells | oCells) & rules.getCellsMask();
+  }
+
+  private void playCell(int cell, char mark) {
+    if (mark == TicTacToeState.X_MARK) {
+      xCells |= 1L << cell;
+    }
+    else {
+      oCells |= 1L << cell;
+    }
+  }
+
+  private int randomCell(long cells) {
+    return KInARowRules.nthCell(cells, random.nextInt(Long.bitCount(cells)));
+  }
+}
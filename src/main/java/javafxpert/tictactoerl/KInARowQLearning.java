@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.singleagent.learning.tdmethods.QLearning;
+import burlap.mdp.singleagent.SADomain;
+import burlap.statehashing.ReflectiveHashableStateFactory;
+
+/**
+ * Trains BURLAP's QLearning on a larger k-in-a-row board, whose states don't fit in a
+ * TabularQLearning table.  Arguments are the board size, line length and number of episodes,
+ * which default to a 4x4 board with four in a row and 100000 episodes.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class KInARowQLearning {
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int lineLength = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    int numEpisodes = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+
+    KInARowWorld world = new KInARowWorld(size, lineLength);
+    SADomain domain = world.generateDomain();
+    QLearning agent = new QLearning(domain, 0.90, new ReflectiveHashableStateFactory(), 0.0, 1.0);
+
+    KInARowEnv env = new KInARowEnv(world.getRules());
+
+    int wins = 0;
+    long steps = 0;
+    long startTime = System.nanoTime();
+    for (int i = 0; i < numEpisodes; i++) {
+      steps += agent.runLearningEpisode(env).numTimeSteps() - 1;
+      if (env.lastReward() == TicTacToeEnv.WIN_REWARD) {
+        wins++;
+      }
+      env.resetEnvironment();
+    }
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+
+    System.out.println(world.getRules() + ": " + numEpisodes + " episodes, " + steps + " steps in " + seconds + " s");
+    System.out.println((long)(numEpisodes / seconds) + " episodes/s, " + (long)(steps / seconds) + " steps/s");
+    System.out.println("Win rate " + (double)wins / numEpisodes);
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+/**
+ * Rules of k-in-a-row on a square board of up to 8x8 cells, for example 4x4 with four in a
+ * row, 5x5 with four in a row, or 7x7 with five in a row.  Cells are numbered row * size + col,
+ * and each mark's cells are held as the bits of a long.
+ *
+ * Lines are found with shifts: a run of k marks in a direction that is a shift of s bits
+ * starts at every bit left set in marks &amp; (marks &gt;&gt;&gt; s) &amp; ... &amp; (marks &gt;&gt;&gt; (k-1)s),
+ * masked to the cells where a run in that direction fits on the board, so runs never wrap
+ * around an edge.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public final class KInARowRules {
+  public static final int MIN_SIZE = 3;
+  public static final int MAX_SIZE = 8;
+
+  private static final KInARowRules[][] INSTANCES = new KInARowRules[MAX_SIZE + 1][MAX_SIZE + 1];
+
+  static {
+    for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+      for (int lineLength = MIN_SIZE; lineLength <= size; lineLength++) {
+        INSTANCES[size][lineLength] = new KInARowRules(size, lineLength);
+      }
+    }
+  }
+
+  private final int size;
+
+  private final int lineLength;
+
+  private final int numCells;
+
+  private final long cellsMask;
+
+  private final long cornersAndCenter;
+
+  /**
+   * Bit shift of each line direction: across, down, down-right and down-left
+   */
+  private final int[] shifts;
+
+  /**
+   * Cells where a line in each direction can start
+   */
+  private final long[] startMasks;
+
+  private KInARowRules(int size, int lineLength) {
+    this.size = size;
+    this.lineLength = lineLength;
+    this.numCells = size * size;
+    this.cellsMask = numCells == 64 ? -1L : (1L << numCells) - 1;
+    this.cornersAndCenter = 1L | 1L << (size - 1) | 1L << (numCells - size) | 1L << (numCells - 1) |
+        1L << centerCell();
+    this.shifts = new int[] {1, size, size + 1, size - 1};
+    this.startMasks = new long[shifts.length];
+    int lastStart = size - lineLength;
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        long bit = 1L << (row * size + col);
+        if (col <= lastStart) {
+          startMasks[0] |= bit;
+        }
+        if (row <= lastStart) {
+          startMasks[1] |= bit;
+        }
+        if (row <= lastStart && col <= lastStart) {
+          startMasks[2] |= bit;
+        }
+        if (row <= lastStart && col >= lineLength - 1) {
+          startMasks[3] |= bit;
+        }
+      }
+    }
+  }
+
+  /**
+   * Rules for a board size (3-8) and line length (3 up to the board size)
+   */
+  public static KInARowRules of(int size, int lineLength) {
+    if (size < MIN_SIZE || size > MAX_SIZE || lineLength < MIN_SIZE || lineLength > size) {
+      throw new IllegalArgumentException("Unsupported " + size + "x" + size + " board with " +
+          lineLength + " in a row");
+    }
+    return INSTANCES[size][lineLength];
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public int getLineLength() {
+    return lineLength;
+  }
+
+  public int getNumCells() {
+    return numCells;
+  }
+
+  /**
+   * Mask of every cell of the board
+   */
+  public long getCellsMask() {
+    return cellsMask;
+  }
+
+  /**
+   * Mask of the four corner cells and the center cell (see centerCell)
+   */
+  public long getCornersAndCenter() {
+    return cornersAndCenter;
+  }
+
+  /**
+   * Whether these are the rules of tic-tac-toe (3x3, three in a row), whose cells are numbered
+   * as in TicTacToeState
+   */
+  public boolean isTicTacToe() {
+    return size == 3 && lineLength == 3;
+  }
+
+  /**
+   * Whether a mark's cells contain k in a row
+   */
+  public boolean hasLine(long marks) {
+    for (int dir = 0; dir < shifts.length; dir++) {
+      long runs = marks & startMasks[dir];
+      for (int i = 1; i < lineLength && runs != 0; i++) {
+        runs &= marks >>> (shifts[dir] * i);
+      }
+      if (runs != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Status code (see TicTacToeRules) of a board.  X is checked first, as in TicTacToeRules.
+   */
+  public int status(long xCells, long oCells) {
+    if (hasLine(xCells)) {
+      return TicTacToeRules.STATUS_X_WON;
+    }
+    if (hasLine(oCells)) {
+      return TicTacToeRules.STATUS_O_WON;
+    }
+    return (xCells | oCells) == cellsMask ? TicTacToeRules.STATUS_CATS_GAME : TicTacToeRules.STATUS_IN_PROGRESS;
+  }
+
+  /**
+   * Empty cell that would complete k in a row for a mark, lowest cell first
+   *
+   * @return Cell index, or -1 if no cells apply
+   */
+  public int lineCompletionCell(long markCells, long emptyCells) {
+    for (long empty = emptyCells; empty != 0; empty &= empty - 1) {
+      long bit = empty & -empty;
+      if (hasLine(markCells | bit)) {
+        return Long.numberOfTrailingZeros(bit);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Cell at the center of the board, or just above and left of it for even sizes
+   */
+  public int centerCell() {
+    return ((size - 1) / 2) * size + (size - 1) / 2;
+  }
+
+  /**
+   * Index of the n-th (zero based) cell of a cell mask
+   */
+  public static int nthCell(long cells, int n) {
+    for (int i = 0; i < n; i++) {
+      cells &= cells - 1;
+    }
+    return Long.numberOfTrailingZeros(cells);
+  }
+
+  @Override
+  public String toString() {
+    return size + "x" + size + ", " + lineLength + " in a row";
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.State;
+import burlap.mdp.core.state.StateUtilities;
+import burlap.mdp.core.state.UnknownKeyException;
+import burlap.mdp.core.state.annotations.DeepCopyState;
+import burlap.statehashing.HashableState;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * State of a k-in-a-row game (see KInARowRules) with the cells of each mark packed into a long.
+ * It has the same variables as TicTacToeState, with a game board String of size * size
+ * marks, so the TicTacToeWorld painters can draw it.
+ *
+ * Like TicTacToeState, it is its own HashableState.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+@DeepCopyState
+public class KInARowState implements MutableState, HashableState {
+  private int size = 3;
+
+  private int lineLength = 3;
+
+  private long xCells;
+
+  private long oCells;
+
+  private final static List<Object> keys =
+      Arrays.asList(TicTacToeState.VAR_GAME_BOARD, TicTacToeState.VAR_GAME_STATUS);
+
+  public KInARowState() {
+  }
+
+  public KInARowState(KInARowRules rules, long xCells, long oCells) {
+    this.size = rules.getSize();
+    this.lineLength = rules.getLineLength();
+    this.xCells = xCells;
+    this.oCells = oCells;
+  }
+
+  public KInARowRules rules() {
+    return KInARowRules.of(size, lineLength);
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public int getLineLength() {
+    return lineLength;
+  }
+
+  public void setLineLength(int lineLength) {
+    this.lineLength = lineLength;
+  }
+
+  public long getXCells() {
+    return xCells;
+  }
+
+  public void setXCells(long xCells) {
+    this.xCells = xCells;
+  }
+
+  public long getOCells() {
+    return oCells;
+  }
+
+  public void setOCells(long oCells) {
+    this.oCells = oCells;
+  }
+
+  public long emptyCells() {
+    return ~(xCells | oCells) & rules().getCellsMask();
+  }
+
+  public char markAt(int cell) {
+    if ((xCells & (1L << cell)) != 0) {
+      return TicTacToeState.X_MARK;
+    }
+    if ((oCells & (1L << cell)) != 0) {
+      return TicTacToeState.O_MARK;
+    }
+    return TicTacToeState.EMPTY;
+  }
+
+  /**
+   * Status code (see TicTacToeRules) of the board
+   */
+  public int status() {
+    return rules().status(xCells, oCells);
+  }
+
+  @Override
+  public MutableState set(Object variableKey, Object value) {
+    if(variableKey.equals(TicTacToeState.VAR_GAME_BOARD)){
+      String gameBoard = (String)value;
+      xCells = 0;
+      oCells = 0;
+      for (int cell = 0; cell < gameBoard.length(); cell++) {
+        if (gameBoard.charAt(cell) == TicTacToeState.X_MARK) {
+          xCells |= 1L << cell;
+        }
+        else if (gameBoard.charAt(cell) == TicTacToeState.O_MARK) {
+          oCells |= 1L << cell;
+        }
+      }
+    }
+    else if(variableKey.equals(TicTacToeState.VAR_GAME_STATUS)){
+      // Status is derived from the board, so there is nothing to store
+    }
+    else{
+      throw new UnknownKeyException(variableKey);
+    }
+    return this;
+  }
+
+  @Override
+  public List<Object> variableKeys() {
+    return keys;
+  }
+
+  @Override
+  public Object get(Object variableKey) {
+    if(variableKey.equals(TicTacToeState.VAR_GAME_BOARD)){
+      char[] cells = new char[size * size];
+      for (int cell = 0; cell < cells.length; cell++) {
+        cells[cell] = markAt(cell);
+      }
+      return new String(cells);
+    }
+    else if(variableKey.equals(TicTacToeState.VAR_GAME_STATUS)){
+      return TicTacToeRules.statusString(status());
+    }
+    throw new UnknownKeyException(variableKey);
+  }
+
+  @Override
+  public KInARowState copy() {
+    return new KInARowState(rules(), xCells, oCells);
+  }
+
+  @Override
+  public State s() {
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if(this == o) return true;
+    if(o == null || getClass() != o.getClass()) return false;
+
+    KInARowState that = (KInARowState) o;
+
+    return xCells == that.xCells && oCells == that.oCells && size == that.size && lineLength == that.lineLength;
+  }
+
+  @Override
+  public int hashCode() {
+    long h = xCells * 31 + oCells;
+    return (int)(h ^ (h >>> 32)) * 31 + size * 9 + lineLength;
+  }
+
+  @Override
+  public String toString() {
+    return StateUtilities.stateToString(this);
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.auxiliary.DomainGenerator;
+import burlap.mdp.singleagent.SADomain;
+import burlap.visualizer.Visualizer;
+
+/**
+ * Domain for k-in-a-row games on boards of up to 8x8 (see KInARowRules)
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class KInARowWorld implements DomainGenerator {
+  private KInARowRules rules;
+
+  public KInARowWorld(int size, int lineLength) {
+    this.rules = KInARowRules.of(size, lineLength);
+  }
+
+  public KInARowRules getRules() {
+    return rules;
+  }
+
+  @Override
+  public SADomain generateDomain() {
+    SADomain domain = new SADomain();
+
+    domain.addActionType(new MoveActionType(rules.getNumCells()));
+    return domain;
+  }
+
+  /**
+   * Visualizer that draws boards of this size, with the TicTacToeWorld painters
+   */
+  public Visualizer getVisualizer() {
+    return new TicTacToeWorld().getVisualizer();
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.extensions.EnvironmentObserver;
+import burlap.visualizer.Visualizer;
+
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live view of training that can stay attached to an environment at full training speed.
+ * The environment's thread only records the latest state and bumps a few counters; a Swing
+ * Timer repaints the Visualizer on the event dispatch thread at a capped frame rate, skipping
+ * frames when the state has not changed, and once a second shows the steps, episodes and
+ * outcomes per second below the board.
+ *
+ * The timer runs from initGUI, or start, until close.  In a headless environment initGUI shows
+ * no window, but frames and counters are still updated, so the visualizer can be exercised
+ * without a display.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class LiveTrainingVisualizer implements EnvironmentObserver, AutoCloseable {
+  private static final int STATUS_INTERVAL_MILLIS = 1000;
+
+  private Visualizer visualizer;
+
+  private JLabel statusLabel = new JLabel(" ");
+
+  private JFrame frame;
+
+  private Timer timer;
+
+  /**
+   * Latest state the environment reached, written by the environment's thread
+   */
+  private volatile State latestState;
+
+  /**
+   * State last handed to the visualizer, used on the event dispatch thread only
+   */
+  private State paintedState;
+
+  private LongAdder stepCount = new LongAdder();
+  private LongAdder episodeCount = new LongAdder();
+  private LongAdder winCount = new LongAdder();
+  private LongAdder lossCount = new LongAdder();
+  private LongAdder drawCount = new LongAdder();
+
+  /**
+   * Counter totals and time at the last status update, used on the event dispatch thread only
+   */
+  private long[] lastTotals = new long[5];
+  private long lastStatusNanos = System.nanoTime();
+
+  private volatile long frameCount = 0;
+
+  private volatile String statusText = "";
+
+  /**
+   * Creates a live visualizer, whose frame timer is started by initGUI or start
+   *
+   * @param visualizer Visualizer to paint states with, for example TicTacToeWorld.getVisualizer()
+   * @param maxFramesPerSecond Largest number of times the board is repainted per second
+   */
+  public LiveTrainingVisualizer(Visualizer visualizer, int maxFramesPerSecond) {
+    if (maxFramesPerSecond < 1) {
+      throw new IllegalArgumentException("Frame rate must be positive: " + maxFramesPerSecond);
+    }
+    this.visualizer = visualizer;
+    timer = new Timer(Math.max(1, 1000 / maxFramesPerSecond), event -> tick());
+    timer.setCoalesce(true);
+  }
+
+  /**
+   * Start repainting, without showing a window
+   */
+  public void start() {
+    timer.start();
+  }
+
+  /**
+   * Show the visualizer and the counters in a window, unless the environment is headless,
+   * and start repainting
+   */
+  public void initGUI() {
+    start();
+    if (GraphicsEnvironment.isHeadless()) {
+      return;
+    }
+    SwingUtilities.invokeLater(() -> {
+      frame = new JFrame("Training");
+      visualizer.setPreferredSize(new Dimension(300, 300));
+      frame.getContentPane().add(visualizer, BorderLayout.CENTER);
+      frame.getContentPane().add(statusLabel, BorderLayout.SOUTH);
+      frame.pack();
+      frame.setVisible(true);
+    });
+  }
+
+  /**
+   * Number of times the board has been repainted
+   */
+  public long getFrameCount() {
+    return frameCount;
+  }
+
+  /**
+   * Most recent per-second counters, as shown below the board
+   */
+  public String getStatusText() {
+    return statusText;
+  }
+
+  public long getStepCount() {
+    return stepCount.sum();
+  }
+
+  public long getEpisodeCount() {
+    return episodeCount.sum();
+  }
+
+  @Override
+  public void observeEnvironmentActionInitiation(State o, Action action) {
+  }
+
+  @Override
+  public void observeEnvironmentInteraction(EnvironmentOutcome eo) {
+    latestState = eo.op;
+    stepCount.increment();
+    if (eo.terminated) {
+      episodeCount.increment();
+      if (eo.r == TicTacToeEnv.WIN_REWARD) {
+        winCount.increment();
+      }
+      else if (eo.r == TicTacToeEnv.LOSE_REWARD) {
+        lossCount.increment();
+      }
+      else {
+        drawCount.increment();
+      }
+    }
+  }
+
+  @Override
+  public void observeEnvironmentReset(Environment resetEnvironment) {
+    latestState = resetEnvironment.currentObservation();
+  }
+
+  /**
+   * Stop repainting, and close the window if there is one
+   */
+  @Override
+  public void close() {
+    timer.stop();
+    SwingUtilities.invokeLater(() -> {
+      if (frame != null) {
+        frame.dispose();
+        frame = null;
+      }
+    });
+  }
+
+  /**
+   * Repaint the latest state if it changed, and update the counters once a second
+   */
+  private void tick() {
+    State state = latestState;
+    if (state != null && state != paintedState) {
+      visualizer.updateState(state);
+      paintedState = state;
+      frameCount++;
+    }
+
+    long now = System.nanoTime();
+    long elapsedNanos = now - lastStatusNanos;
+    if (elapsedNanos >= STATUS_INTERVAL_MILLIS * 1000000L) {
+      long[] totals = {stepCount.sum(), episodeCount.sum(), winCount.sum(), lossCount.sum(), drawCount.sum()};
+      double seconds = elapsedNanos / 1e9;
+      statusText = String.format("%.0f steps/s, %.0f episodes/s (won %.0f, lost %.0f, drew %.0f /s)",
+          (totals[0] - lastTotals[0]) / seconds, (totals[1] - lastTotals[1]) / seconds,
+          (totals[2] - lastTotals[2]) / seconds, (totals[3] - lastTotals[3]) / seconds,
+          (totals[4] - lastTotals[4]) / seconds);
+      statusLabel.setText(statusText);
+      lastTotals = totals;
+      lastStatusNanos = now;
+    }
+  }
+}
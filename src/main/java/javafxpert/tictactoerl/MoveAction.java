@@ -18,17 +18,36 @@ package javafxpert.tictactoerl;
 import burlap.mdp.core.action.Action;
 
 /**
+ * Move into a cell, numbered row * size + col on boards of up to 8x8 (see KInARowRules).  The
+ * shared instances returned by MoveAction.of are used everywhere actions are generated, so
+ * action lists and episodes don't allocate.  They are immutable; EpisodeRecorder reads
+ * recorded actions back as the same shared instances.
+ *
  * @author James L. Weaver (Twitter: @JavaFXpert)
  */
 public class MoveAction implements Action {
   /**
-   * The action ID of this action.  Corresponds to a tic-tac-toe cell (zero based 0-8)
+   * Number of cells on the largest supported board
+   */
+  public static final int MAX_CELLS = KInARowRules.MAX_SIZE * KInARowRules.MAX_SIZE;
+
+  /**
+   * Shared instance for each cell
    */
-  private int actionId;
+  private static final MoveAction[] MOVES = new MoveAction[MAX_CELLS];
+
+  static {
+    for (int cell = 0; cell < MOVES.length; cell++) {
+      MOVES[cell] = new MoveAction(cell);
+    }
+  }
 
-  public MoveAction() {}
+  /**
+   * The action ID of this action.  Corresponds to a cell (zero based, 0-8 on a tic-tac-toe board)
+   */
+  private final int actionId;
 
-  public MoveAction(int actionId) {
+  private MoveAction(int actionId) {
     this.actionId = actionId;
   }
 
@@ -36,6 +55,16 @@ public class MoveAction implements Action {
     return actionId;
   }
 
+  /**
+   * Shared action for a cell (zero based, 0-8 on a tic-tac-toe board)
+   */
+  public static MoveAction of(int cell) {
+    if (cell < 0 || cell >= MOVES.length) {
+      throw new IllegalArgumentException("No tic-tac-toe cell " + cell);
+    }
+    return MOVES[cell];
+  }
+
   @Override
   public String actionName() {
     return MoveActionType.BASE_ACTION_NAME + actionId;
@@ -43,7 +72,7 @@ public class MoveAction implements Action {
 
   @Override
   public Action copy() {
-    return new MoveAction(actionId);
+    return of(actionId);
   }
 
   @Override
@@ -20,38 +20,110 @@ import burlap.mdp.core.action.ActionType;
 import burlap.mdp.core.state.State;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
+ * Action type for moves into empty cells, on a tic-tac-toe board (TicTacToeState) or a
+ * k-in-a-row board (KInARowState).  For tic-tac-toe the applicable actions of every empty-cell
+ * mask are computed once, so allApplicableActions returns a shared, unmodifiable list.
+ *
  * @author James L. Weaver (Twitter: @JavaFXpert)
  */
 public class MoveActionType implements ActionType {
   public static String BASE_ACTION_NAME = "moveAction";
 
+  /**
+   * Number of cells on the board, which bounds the cells that associatedAction accepts
+   */
+  private int numCells;
+
+  /**
+   * Unmodifiable list of the MoveActions into the empty cells, indexed by empty-cell mask
+   */
+  private static final List<List<Action>> APPLICABLE_ACTIONS;
+
+  static {
+    List<List<Action>> applicableActions = new ArrayList<>(1 << 9);
+    for (int emptyCells = 0; emptyCells < (1 << 9); emptyCells++) {
+      List<Action> actions = new ArrayList<>(Integer.bitCount(emptyCells));
+      for (int cell = 0; cell < TicTacToeState.NUM_CELLS; cell++) {
+        if ((emptyCells & (1 << cell)) != 0) {
+          actions.add(MoveAction.of(cell));
+        }
+      }
+      applicableActions.add(Collections.unmodifiableList(actions));
+    }
+    APPLICABLE_ACTIONS = Collections.unmodifiableList(applicableActions);
+  }
+
+  public MoveActionType() {
+    this(TicTacToeState.NUM_CELLS);
+  }
+
+  public MoveActionType(int numCells) {
+    this.numCells = numCells;
+  }
+
   @Override
   public String typeName() {
     return BASE_ACTION_NAME;
   }
 
+  /**
+   * Action for a String representation, which is either the action name (for example
+   * "moveAction4") or just the cell number
+   */
   @Override
   public Action associatedAction(String strRep) {
-    return new MoveAction(0); //TODO: Ascertain what is needed here
+    String cell = strRep.trim();
+    if (cell.startsWith(BASE_ACTION_NAME)) {
+      cell = cell.substring(BASE_ACTION_NAME.length());
+    }
+    int cellNum;
+    try {
+      cellNum = Integer.parseInt(cell);
+    }
+    catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a " + BASE_ACTION_NAME + ": " + strRep, e);
+    }
+    if (cellNum < 0 || cellNum >= numCells) {
+      throw new IllegalArgumentException("No cell " + cellNum + " on a board of " + numCells + " cells");
+    }
+    return MoveAction.of(cellNum);
   }
 
   @Override
   public List<Action> allApplicableActions(State state) {
-    List<Action> applicableActions = new ArrayList<>();
-    TicTacToeState tttState = (TicTacToeState)state;
-
-    String gameStatus = (String)tttState.get(TicTacToeState.VAR_GAME_STATUS);
-    if (gameStatus.equals(TicTacToeState.GAME_STATUS_IN_PROGRESS)) {
-      String gameBoard = (String)tttState.get(TicTacToeState.VAR_GAME_BOARD);
-      for (int i = 0; i < TicTacToeState.NUM_CELLS; i++) {
-        if (gameBoard.charAt(i) == TicTacToeState.EMPTY) {
-          applicableActions.add(new MoveAction(i));
-        }
-      }
+    if (state instanceof KInARowState) {
+      return applicableActions((KInARowState)state);
+    }
+    return applicableActions(((TicTacToeState)state).getBoard());
+  }
+
+  /**
+   * Shared, unmodifiable list of the moves available on a packed board, which is empty
+   * once the game is over
+   */
+  public static List<Action> applicableActions(int board) {
+    if (TicTacToeRules.status(board) != TicTacToeRules.STATUS_IN_PROGRESS) {
+      return Collections.emptyList();
+    }
+    return APPLICABLE_ACTIONS.get(TicTacToeState.emptyMask(board));
+  }
+
+  /**
+   * Moves available on a k-in-a-row board, which is empty once the game is over
+   */
+  public static List<Action> applicableActions(KInARowState state) {
+    if (state.status() != TicTacToeRules.STATUS_IN_PROGRESS) {
+      return Collections.emptyList();
+    }
+    long empty = state.emptyCells();
+    List<Action> actions = new ArrayList<>(Long.bitCount(empty));
+    for (; empty != 0; empty &= empty - 1) {
+      actions.add(MoveAction.of(Long.numberOfTrailingZeros(empty)));
     }
-    return applicableActions;
+    return actions;
   }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.util.Arrays;
+
+/**
+ * Perfect-play move table for tic-tac-toe, computed once by memoized negamax and shared
+ * by every environment.  It covers every board with legal mark counts (X moves first),
+ * which includes all reachable positions, so an optimal move is a single array lookup.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public final class NegamaxTable {
+  /**
+   * Marks an entry whose board is finished or has impossible mark counts
+   */
+  public static final int NO_MOVE = -1;
+
+  /**
+   * Marks an entry that has not been searched yet
+   */
+  private static final byte UNSEARCHED = Byte.MIN_VALUE;
+
+  /**
+   * Best cell for the side to move, per base-3 board encoding
+   */
+  private static final byte[] BEST_MOVE = new byte[TicTacToeRules.NUM_ENCODINGS];
+
+  /**
+   * Negamax value for the side to move, per base-3 board encoding.  A win is worth one more
+   * than the number of cells left empty, so quicker wins and slower losses are preferred.
+   */
+  private static final byte[] VALUE = new byte[TicTacToeRules.NUM_ENCODINGS];
+
+  static {
+    Arrays.fill(BEST_MOVE, (byte)NO_MOVE);
+    Arrays.fill(VALUE, UNSEARCHED);
+    for (int code = 0; code < TicTacToeRules.NUM_ENCODINGS; code++) {
+      int board = TicTacToeRules.decode(code);
+      if (sideToMove(board) != 0) {
+        negamax(board);
+      }
+    }
+  }
+
+  private NegamaxTable() {
+  }
+
+  /**
+   * Optimal cell for the side to move, or NO_MOVE if the game is over or the board can't occur
+   */
+  public static int bestMove(int board) {
+    return BEST_MOVE[TicTacToeRules.encode(board)];
+  }
+
+  /**
+   * Value of a board for the side to move under perfect play: positive if it wins,
+   * zero for a cat's game, negative if it loses
+   */
+  public static int value(int board) {
+    return VALUE[TicTacToeRules.encode(board)];
+  }
+
+  /**
+   * Mark of the side to move given that X moves first, or 0 if the mark counts are impossible
+   */
+  public static char sideToMove(int board) {
+    int xCount = Integer.bitCount(board & TicTacToeState.CELLS_MASK);
+    int oCount = Integer.bitCount((board >>> TicTacToeState.O_SHIFT) & TicTacToeState.CELLS_MASK);
+    if (xCount == oCount) {
+      return TicTacToeState.X_MARK;
+    }
+    if (xCount == oCount + 1) {
+      return TicTacToeState.O_MARK;
+    }
+    return 0;
+  }
+
+  private static int negamax(int board) {
+    int code = TicTacToeRules.encode(board);
+    if (VALUE[code] != UNSEARCHED) {
+      return VALUE[code];
+    }
+
+    int empty = TicTacToeState.emptyMask(board);
+    int status = TicTacToeRules.status(board);
+    int value;
+    if (status == TicTacToeRules.STATUS_X_WON || status == TicTacToeRules.STATUS_O_WON) {
+      // The previous mover completed a line
+      value = -(1 + Integer.bitCount(empty));
+    }
+    else if (status == TicTacToeRules.STATUS_CATS_GAME) {
+      value = 0;
+    }
+    else {
+      char mover = sideToMove(board);
+      value = Integer.MIN_VALUE;
+      for (int remaining = empty; remaining != 0; remaining &= remaining - 1) {
+        int cell = Integer.numberOfTrailingZeros(remaining);
+        int childValue = -negamax(TicTacToeState.withMark(board, cell, mover));
+        if (childValue > value) {
+          value = childValue;
+          BEST_MOVE[code] = (byte)cell;
+        }
+      }
+    }
+
+    VALUE[code] = (byte)value;
+    return value;
+  }
+}
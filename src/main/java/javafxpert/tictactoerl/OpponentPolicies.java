@@ -0,0 +1,277 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The built-in strategies for the player embedded in TicTacToeEnv or KInARowEnv, identified by
+ * the policy numbers accepted by their setAgentPolicy methods.  On k-in-a-row boards "three in a
+ * row" means k in a row, and every strategy but the perfect player supports any board.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public final class OpponentPolicies {
+  /**
+   * 0: Simple strategy that plays the first empty cell
+   */
+  public static final OpponentPolicy FIRST_EMPTY_CELL = new FirstEmptyCell();
+
+  /**
+   * 1: Simple strategy that plays a completely random empty cell
+   */
+  public static final OpponentPolicy RANDOM_CELL = new RandomCell();
+
+  /**
+   * 2: Strategy that randomly places its mark except when there are opportunities to block a three-in-a row
+   */
+  public static final OpponentPolicy BLOCK_OR_RANDOM = new BlockOrRandom();
+
+  /**
+   * 3: Strategy that randomly places its mark except when there are opportunities to
+   * play third mark in a row, or to block a three-in-a row
+   */
+  public static final OpponentPolicy WIN_OR_BLOCK_OR_RANDOM = new WinOrBlockOrRandom();
+
+  /**
+   * 4: Strategy that prefers center or random corner placement, except when
+   * there are opportunities to play a third mark in a row, or block a three-in-a-row
+   */
+  public static final OpponentPolicy WIN_OR_BLOCK_OR_CENTER_OR_CORNER = new WinOrBlockOrCenterOrCorner();
+
+  /**
+   * 5: Strategy that plays an optimal move from the shared negamax table, so it never loses
+   */
+  public static final OpponentPolicy PERFECT = new Perfect();
+
+  private static final OpponentPolicy[] BY_ID = {
+      FIRST_EMPTY_CELL,
+      RANDOM_CELL,
+      BLOCK_OR_RANDOM,
+      WIN_OR_BLOCK_OR_RANDOM,
+      WIN_OR_BLOCK_OR_CENTER_OR_CORNER,
+      PERFECT
+  };
+
+  /**
+   * Number of built-in policies, which are numbered from 0
+   */
+  public static final int NUM_POLICIES = BY_ID.length;
+
+  private OpponentPolicies() {
+  }
+
+  /**
+   * Built-in policy for a policy number, defaulting to 4 for unknown numbers
+   */
+  public static OpponentPolicy forId(int policyId) {
+    if (policyId < 0 || policyId >= BY_ID.length) {
+      return WIN_OR_BLOCK_OR_CENTER_OR_CORNER;
+    }
+    return BY_ID[policyId];
+  }
+
+  /**
+   * Policy number of a built-in policy, or -1 for any other policy
+   */
+  public static int idOf(OpponentPolicy policy) {
+    for (int i = 0; i < BY_ID.length; i++) {
+      if (BY_ID[i] == policy) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int randomCell(int cells, SplittableRandom random) {
+    return TicTacToeRules.nthCell(cells, random.nextInt(Integer.bitCount(cells)));
+  }
+
+  /**
+   * Spread the probability evenly over a cell mask
+   */
+  private static void uniform(int cells, double[] probabilities) {
+    Arrays.fill(probabilities, 0);
+    double probability = 1.0 / Integer.bitCount(cells);
+    for (; cells != 0; cells &= cells - 1) {
+      probabilities[Integer.numberOfTrailingZeros(cells)] = probability;
+    }
+  }
+
+  private static int otherMarkCells(int board, char mark) {
+    char otherMark = mark == TicTacToeState.X_MARK ? TicTacToeState.O_MARK : TicTacToeState.X_MARK;
+    return TicTacToeState.markMask(board, otherMark);
+  }
+
+  private static int randomCell(long cells, SplittableRandom random) {
+    return KInARowRules.nthCell(cells, random.nextInt(Long.bitCount(cells)));
+  }
+
+  private static long emptyCells(KInARowRules rules, long xCells, long oCells) {
+    return ~(xCells | oCells) & rules.getCellsMask();
+  }
+
+  /**
+   * Cell that completes k in a row for the given mark if it can win, otherwise a cell that blocks
+   * the other mark's k in a row, or -1
+   */
+  private static int winOrBlockCell(KInARowRules rules, long xCells, long oCells, char mark, long empty) {
+    long ownCells = mark == TicTacToeState.X_MARK ? xCells : oCells;
+    long otherCells = mark == TicTacToeState.X_MARK ? oCells : xCells;
+    int cell = rules.lineCompletionCell(ownCells, empty);
+    return cell != -1 ? cell : rules.lineCompletionCell(otherCells, empty);
+  }
+
+  /**
+   * Base of the built-in policies, which play boards of any size
+   */
+  private static abstract class AnyBoardPolicy implements OpponentPolicy {
+    @Override
+    public boolean supports(KInARowRules rules) {
+      return true;
+    }
+  }
+
+  private static class FirstEmptyCell extends AnyBoardPolicy {
+    @Override
+    public int selectCell(int board, char mark, SplittableRandom random) {
+      return Integer.numberOfTrailingZeros(TicTacToeState.emptyMask(board));
+    }
+
+    @Override
+    public int selectCell(KInARowRules rules, long xCells, long oCells, char mark, SplittableRandom random) {
+      return Long.numberOfTrailingZeros(emptyCells(rules, xCells, oCells));
+    }
+  }
+
+  private static class RandomCell extends AnyBoardPolicy {
+    @Override
+    public int selectCell(int board, char mark, SplittableRandom random) {
+      return randomCell(TicTacToeState.emptyMask(board), random);
+    }
+
+    @Override
+    public int selectCell(KInARowRules rules, long xCells, long oCells, char mark, SplittableRandom random) {
+      return randomCell(emptyCells(rules, xCells, oCells), random);
+    }
+
+    @Override
+    public void moveProbabilities(int board, char mark, double[] probabilities) {
+      uniform(TicTacToeState.emptyMask(board), probabilities);
+    }
+  }
+
+  private static class BlockOrRandom extends AnyBoardPolicy {
+    @Override
+    public int selectCell(int board, char mark, SplittableRandom random) {
+      int empty = TicTacToeState.emptyMask(board);
+      int cell = TicTacToeRules.lineCompletionCell(otherMarkCells(board, mark), empty);
+      return cell != -1 ? cell : randomCell(empty, random);
+    }
+
+    @Override
+    public int selectCell(KInARowRules rules, long xCells, long oCells, char mark, SplittableRandom random) {
+      long empty = emptyCells(rules, xCells, oCells);
+      int cell = rules.lineCompletionCell(mark == TicTacToeState.X_MARK ? oCells : xCells, empty);
+      return cell != -1 ? cell : randomCell(empty, random);
+    }
+
+    @Override
+    public void moveProbabilities(int board, char mark, double[] probabilities) {
+      int empty = TicTacToeState.emptyMask(board);
+      int cell = TicTacToeRules.lineCompletionCell(otherMarkCells(board, mark), empty);
+      uniform(cell != -1 ? 1 << cell : empty, probabilities);
+    }
+  }
+
+  private static class WinOrBlockOrRandom extends AnyBoardPolicy {
+    @Override
+    public int selectCell(int board, char mark, SplittableRandom random) {
+      int empty = TicTacToeState.emptyMask(board);
+      int cell = TicTacToeRules.lineCompletionCell(TicTacToeState.markMask(board, mark), empty);
+      if (cell == -1) {
+        cell = TicTacToeRules.lineCompletionCell(otherMarkCells(board, mark), empty);
+      }
+      return cell != -1 ? cell : randomCell(empty, random);
+    }
+
+    @Override
+    public int selectCell(KInARowRules rules, long xCells, long oCells, char mark, SplittableRandom random) {
+      long empty = emptyCells(rules, xCells, oCells);
+      int cell = winOrBlockCell(rules, xCells, oCells, mark, empty);
+      return cell != -1 ? cell : randomCell(empty, random);
+    }
+
+    @Override
+    public void moveProbabilities(int board, char mark, double[] probabilities) {
+      int empty = TicTacToeState.emptyMask(board);
+      int cell = TicTacToeRules.lineCompletionCell(TicTacToeState.markMask(board, mark), empty);
+      if (cell == -1) {
+        cell = TicTacToeRules.lineCompletionCell(otherMarkCells(board, mark), empty);
+      }
+      uniform(cell != -1 ? 1 << cell : empty, probabilities);
+    }
+  }
+
+  private static class WinOrBlockOrCenterOrCorner extends AnyBoardPolicy {
+    @Override
+    public int selectCell(int board, char mark, SplittableRandom random) {
+      int empty = TicTacToeState.emptyMask(board);
+      int cell = TicTacToeRules.lineCompletionCell(TicTacToeState.markMask(board, mark), empty);
+      if (cell == -1) {
+        cell = TicTacToeRules.lineCompletionCell(otherMarkCells(board, mark), empty);
+      }
+      if (cell != -1) {
+        return cell;
+      }
+      int cornersAndCenter = empty & TicTacToeRules.CORNERS_AND_CENTER;
+      return randomCell(cornersAndCenter != 0 ? cornersAndCenter : empty, random);
+    }
+
+    @Override
+    public int selectCell(KInARowRules rules, long xCells, long oCells, char mark, SplittableRandom random) {
+      long empty = emptyCells(rules, xCells, oCells);
+      int cell = winOrBlockCell(rules, xCells, oCells, mark, empty);
+      if (cell != -1) {
+        return cell;
+      }
+      long cornersAndCenter = empty & rules.getCornersAndCenter();
+      return randomCell(cornersAndCenter != 0 ? cornersAndCenter : empty, random);
+    }
+
+    @Override
+    public void moveProbabilities(int board, char mark, double[] probabilities) {
+      int empty = TicTacToeState.emptyMask(board);
+      int cell = TicTacToeRules.lineCompletionCell(TicTacToeState.markMask(board, mark), empty);
+      if (cell == -1) {
+        cell = TicTacToeRules.lineCompletionCell(otherMarkCells(board, mark), empty);
+      }
+      int cornersAndCenter = empty & TicTacToeRules.CORNERS_AND_CENTER;
+      uniform(cell != -1 ? 1 << cell : cornersAndCenter != 0 ? cornersAndCenter : empty, probabilities);
+    }
+  }
+
+  /**
+   * Plays tic-tac-toe only, as larger k-in-a-row games are too big to solve exhaustively
+   */
+  private static class Perfect implements OpponentPolicy {
+    @Override
+    public int selectCell(int board, char mark, SplittableRandom random) {
+      return NegamaxTable.bestMove(board);
+    }
+  }
+}
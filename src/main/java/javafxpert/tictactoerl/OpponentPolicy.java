@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Strategy of the player embedded in TicTacToeEnv or KInARowEnv.  Implementations are given the
+ * packed board, so the built-in strategies choose a cell with a few mask operations and no allocation.
+ * Strategies that play at random draw from the stream they are given by the environment, so
+ * one policy can be shared by environments on many threads without contention, and a run from
+ * seeded streams can be repeated exactly.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public interface OpponentPolicy {
+  /**
+   * Choose the cell to play
+   *
+   * @param board Packed game board (see TicTacToeState), on which the game is in progress
+   * @param mark Mark (X or O) that this player plays
+   * @param random Stream of the calling environment to draw any random choice from
+   * @return Zero-based index of an empty cell
+   */
+  int selectCell(int board, char mark, SplittableRandom random);
+
+  /**
+   * Choose the cell to play on a k-in-a-row board.  The default plays the tic-tac-toe board
+   * through selectCell(int, char, SplittableRandom), so policies that support other boards
+   * override this and supports.
+   *
+   * @param rules Rules of the game, which this policy supports
+   * @param xCells Cells holding an X, one bit per cell
+   * @param oCells Cells holding an O
+   * @param mark Mark (X or O) that this player plays
+   * @param random Stream of the calling environment to draw any random choice from
+   * @return Zero-based index of an empty cell
+   */
+  default int selectCell(KInARowRules rules, long xCells, long oCells, char mark, SplittableRandom random) {
+    if (!rules.isTicTacToe()) {
+      throw new UnsupportedOperationException(getClass().getSimpleName() + " can't play " + rules);
+    }
+    return selectCell((int)xCells | (int)oCells << TicTacToeState.O_SHIFT, mark, random);
+  }
+
+  /**
+   * Whether this policy can play k-in-a-row games under the given rules.  By default only
+   * tic-tac-toe is supported.
+   */
+  default boolean supports(KInARowRules rules) {
+    return rules.isTicTacToe();
+  }
+
+  /**
+   * Probability of each cell being chosen, as used to plan against this player (see
+   * TicTacToeValueIteration).  The default suits deterministic policies, putting all of the
+   * probability on the cell selectCell chooses (with a fresh stream), so policies that choose at random should
+   * override it.
+   *
+   * @param board Packed game board, on which the game is in progress
+   * @param mark Mark (X or O) that this player plays
+   * @param probabilities Filled in with the probability of each cell (0-8)
+   */
+  default void moveProbabilities(int board, char mark, double[] probabilities) {
+    Arrays.fill(probabilities, 0);
+    probabilities[selectCell(board, mark, new SplittableRandom())] = 1;
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.mdp.singleagent.SADomain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs learning episodes on a fork-join pool, Hogwild style.  Each worker thread owns a
+ * TicTacToeEnv and a TabularQLearning agent, and every agent updates the same shared
+ * AtomicQTable without taking a lock.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class ParallelEpisodeRunner {
+  private ForkJoinPool pool;
+
+  private List<TicTacToeEnv> environments = new ArrayList<>();
+
+  private List<TabularQLearning> agents = new ArrayList<>();
+
+  private LongAdder episodeCount = new LongAdder();
+
+  private LongAdder stepCount = new LongAdder();
+
+  /**
+   * Recorder that episodes are handed to, or null
+   */
+  private volatile EpisodeRecorder recorder;
+
+  /**
+   * Binary log that episodes are appended to, or null
+   */
+  private volatile BinaryEpisodeLog episodeLog;
+
+  /**
+   * Whether each worker's environment player switches marks after every episode
+   */
+  private volatile boolean alternateMarks = false;
+
+  public ParallelEpisodeRunner(SADomain domain, double gamma, AtomicQTable qTable, double learningRate,
+                               Supplier<TicTacToeEnv> envFactory) {
+    this(domain, gamma, qTable, learningRate, envFactory, Runtime.getRuntime().availableProcessors());
+  }
+
+  public ParallelEpisodeRunner(SADomain domain, double gamma, AtomicQTable qTable, double learningRate,
+                               Supplier<TicTacToeEnv> envFactory, int numWorkers) {
+    this.pool = new ForkJoinPool(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      environments.add(envFactory.get());
+      agents.add(new TabularQLearning(domain, gamma, qTable, learningRate));
+    }
+  }
+
+  /**
+   * Environments of the workers, one per worker, for example to set the environment player mark
+   */
+  public List<TicTacToeEnv> getEnvironments() {
+    return environments;
+  }
+
+  /**
+   * Learning agents of the workers, one per worker
+   */
+  public List<TabularQLearning> getAgents() {
+    return agents;
+  }
+
+  /**
+   * Hand every finished episode to a recorder, or stop recording when null
+   */
+  public void setEpisodeRecorder(EpisodeRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  /**
+   * Append every finished episode to a binary log, or stop logging when null
+   */
+  public void setEpisodeLog(BinaryEpisodeLog episodeLog) {
+    this.episodeLog = episodeLog;
+  }
+
+  /**
+   * Have each worker's environment player switch between X and O after every episode, so
+   * the agents learn to play both marks, as in self-play (see SelfPlayOpponent)
+   */
+  public void setAlternateMarks(boolean alternateMarks) {
+    this.alternateMarks = alternateMarks;
+  }
+
+  /**
+   * Give every worker's environment and agent (and its experience replay, if any) its own
+   * random stream, split in worker order from one root stream with the given seed.  The
+   * streams are uncontended, and with one worker a run from the same seed and Q-table is
+   * repeated exactly.  With several workers each worker still draws the same numbers, but
+   * the order in which they update the shared Q-table varies from run to run.
+   */
+  public void setSeed(long seed) {
+    SplittableRandom root = new SplittableRandom(seed);
+    for (int i = 0; i < agents.size(); i++) {
+      environments.get(i).setRandom(root.split());
+      TabularQLearning agent = agents.get(i);
+      agent.setRandom(root.split());
+      if (agent.getExperienceReplay() != null) {
+        agent.getExperienceReplay().setRandom(root.split());
+      }
+    }
+  }
+
+  public int getNumWorkers() {
+    return agents.size();
+  }
+
+  public long getEpisodeCount() {
+    return episodeCount.sum();
+  }
+
+  public long getStepCount() {
+    return stepCount.sum();
+  }
+
+  /**
+   * Run learning episodes split evenly across the workers, and return when all have finished
+   */
+  public void runEpisodes(int numEpisodes) {
+    int numWorkers = agents.size();
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      int workerEpisodes = numEpisodes / numWorkers + (i < numEpisodes % numWorkers ? 1 : 0);
+      TicTacToeEnv env = environments.get(i);
+      TabularQLearning agent = agents.get(i);
+      tasks.add(pool.submit(() -> runWorkerEpisodes(agent, env, workerEpisodes)));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+  }
+
+  /**
+   * Stop the worker threads
+   */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  private void runWorkerEpisodes(TabularQLearning agent, TicTacToeEnv env, int numEpisodes) {
+    for (int i = 0; i < numEpisodes; i++) {
+      Episode episode = agent.runLearningEpisode(env);
+
+      EpisodeRecorder episodeRecorder = recorder;
+      if (episodeRecorder != null) {
+        episodeRecorder.record(episode);
+      }
+      BinaryEpisodeLog log = episodeLog;
+      if (log != null) {
+        log.append(episode, env.getAgentPolicy());
+      }
+
+      //reset environment for next learning episode
+      if (alternateMarks) {
+        env.setEnvPlayerMark(env.getAgentPlayerMark());
+      }
+      else {
+        env.resetEnvironment();
+      }
+
+      episodeCount.increment();
+      stepCount.add(episode.numActions());
+    }
+  }
+}
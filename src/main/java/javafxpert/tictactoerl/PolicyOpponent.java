@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.policy.Policy;
+
+import java.util.SplittableRandom;
+
+/**
+ * Opponent that asks a BURLAP Policy, for example a greedy policy over a trained agent,
+ * for its move
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class PolicyOpponent implements OpponentPolicy {
+  private Policy policy;
+
+  public PolicyOpponent(Policy policy) {
+    this.policy = policy;
+  }
+
+  @Override
+  public int selectCell(int board, char mark, SplittableRandom random) {
+    return ((MoveAction)policy.action(new TicTacToeState(board))).getActionId();
+  }
+}
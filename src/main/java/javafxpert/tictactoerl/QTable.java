@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+/**
+ * Flat table of Q-values, indexed by TicTacToeStateIndex.index(board) * NUM_CELLS + cell
+ * (see baseIndex), so only the boards that can arise in a game take up room
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public interface QTable {
+  /**
+   * Number of Q-values in a table that covers every reachable board
+   */
+  int SIZE = TicTacToeStateIndex.NUM_POSITIONS * TicTacToeState.NUM_CELLS;
+
+  /**
+   * Index of the Q-value of cell 0 on a packed board, which the other cells follow
+   *
+   * @throws IllegalArgumentException if the board can't arise in a game
+   */
+  static int baseIndex(int board) {
+    int position = TicTacToeStateIndex.index(board);
+    if (position < 0) {
+      throw new IllegalArgumentException("Board " + TicTacToeState.unpackBoard(board) + " can't arise in a game");
+    }
+    return position * TicTacToeState.NUM_CELLS;
+  }
+
+  /**
+   * Value that every Q-value starts at, and returns to on reset
+   */
+  double getQInit();
+
+  double get(int index);
+
+  void set(int index, double q);
+
+  /**
+   * Move a Q-value toward a target: q += learningRate * (target - q)
+   */
+  void update(int index, double learningRate, double target);
+
+  /**
+   * Set every Q-value back to the table's initial value
+   */
+  void reset();
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saves a QTable to a compact binary file, either on demand or periodically from a background
+ * thread, and loads it back.  Only the Q-values that differ from the table's initial value are
+ * stored, each as a little-endian (int index, double value) pair after a header of magic number,
+ * version, initial value, entry count and content hash.  The content hash (FNV-1a of the initial
+ * value and the entries) identifies the Q-values, so that for example a CompiledPolicy can be
+ * checked against a checkpoint by reading just its header (see readContentHash).  Version 1
+ * files, whose entries were indexed by base-3 board encoding rather than by QTable.baseIndex,
+ * and version 2 files, without a content hash, can still be loaded.
+ *
+ * Snapshots read the table while learners keep updating it.  With an AtomicQTable every value
+ * in a snapshot is one that the table held, although updates made during the snapshot may or
+ * may not be included.  An ArrayQTable gives no such guarantee across threads, so it should
+ * only be snapshotted from its learner's thread; use an AtomicQTable with periodic snapshots.
+ * Each snapshot is written to a temporary file that then replaces the checkpoint, so a
+ * checkpoint file is always complete.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class QTableCheckpoint implements AutoCloseable {
+  static final int MAGIC = 0x54545451; // "TTTQ"
+  static final int VERSION = 3;
+  static final int HEADER_BYTES = 28;
+
+  /**
+   * Size of the header before version 3, which had no content hash
+   */
+  static final int HEADER_BYTES_V2 = 20;
+  static final int ENTRY_BYTES = 12;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private QTable qTable;
+
+  private Path checkpointPath;
+
+  private ScheduledExecutorService scheduler;
+
+  private AtomicLong snapshotCount = new AtomicLong();
+
+  private volatile IOException snapshotFailure;
+
+  public QTableCheckpoint(QTable qTable, String path) {
+    this.qTable = qTable;
+    this.checkpointPath = Paths.get(path);
+  }
+
+  /**
+   * Snapshot the table every period on a daemon thread, until close.  The table must be an
+   * AtomicQTable (or another QTable that is safe to read from other threads).
+   */
+  public synchronized void startPeriodicSnapshots(long period, TimeUnit unit) {
+    if (qTable instanceof ArrayQTable) {
+      throw new IllegalStateException("An ArrayQTable can't be snapshotted from another thread, use an AtomicQTable");
+    }
+    if (scheduler != null) {
+      throw new IllegalStateException("Periodic snapshots already started");
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "qtable-checkpoint");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        write(qTable, checkpointPath);
+        snapshotCount.incrementAndGet();
+      }
+      catch (IOException e) {
+        snapshotFailure = e;
+      }
+    }, period, period, unit);
+  }
+
+  /**
+   * Write a snapshot now
+   */
+  public void snapshot() {
+    save(qTable, checkpointPath.toString());
+    snapshotCount.incrementAndGet();
+  }
+
+  /**
+   * Number of snapshots written so far
+   */
+  public long getSnapshotCount() {
+    return snapshotCount.get();
+  }
+
+  /**
+   * Stop the periodic snapshots and write a final one
+   */
+  @Override
+  public synchronized void close() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+      try {
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      scheduler = null;
+    }
+    if (snapshotFailure != null) {
+      throw new UncheckedIOException(snapshotFailure);
+    }
+    snapshot();
+  }
+
+  /**
+   * Write a QTable to a checkpoint file
+   */
+  public static void save(QTable qTable, String path) {
+    try {
+      write(qTable, Paths.get(path));
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Replace the contents of a QTable with those of a checkpoint file, for example to resume
+   * training or to play without training
+   *
+   * @throws IllegalArgumentException if the table's initial Q-value differs from the file's,
+   * since entries still at the file's initial value would then count as visited
+   */
+  public static void load(String path, QTable qTable) {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path))).order(ByteOrder.LITTLE_ENDIAN);
+
+      int version = readVersion(buffer, path);
+      double qInit = buffer.getDouble();
+      int numEntries = buffer.getInt();
+      if (version >= 3) {
+        buffer.getLong();
+      }
+      if (Double.doubleToLongBits(qInit) != Double.doubleToLongBits(qTable.getQInit())) {
+        throw new IllegalArgumentException(path + " has initial Q-value " + qInit + ", but the table has " +
+            qTable.getQInit());
+      }
+      int tableSize = (version == 1 ? TicTacToeRules.NUM_ENCODINGS : TicTacToeStateIndex.NUM_POSITIONS) *
+          TicTacToeState.NUM_CELLS;
+      if (numEntries < 0 || numEntries > tableSize || buffer.remaining() != numEntries * ENTRY_BYTES) {
+        throw new IOException(path + " is truncated or corrupt");
+      }
+
+      // Check every entry before changing the table, so a bad file leaves it as it was
+      int[] indices = new int[numEntries];
+      double[] values = new double[numEntries];
+      for (int i = 0; i < numEntries; i++) {
+        int index = buffer.getInt();
+        if (index < 0 || index >= tableSize) {
+          throw new IOException(path + " has entry index " + index + " outside the Q-table");
+        }
+        if (version == 1) {
+          int board = TicTacToeRules.decode(index / TicTacToeState.NUM_CELLS);
+          if (TicTacToeStateIndex.index(board) < 0) {
+            throw new IOException(path + " has an entry for a board that can't arise in a game");
+          }
+          index = QTable.baseIndex(board) + index % TicTacToeState.NUM_CELLS;
+        }
+        indices[i] = index;
+        values[i] = buffer.getDouble();
+      }
+
+      for (int index = 0; index < QTable.SIZE; index++) {
+        qTable.set(index, qInit);
+      }
+      for (int i = 0; i < numEntries; i++) {
+        qTable.set(indices[i], values[i]);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Content hash of a checkpoint file, read from its header, or computed from its Q-values
+   * for a file from before version 3
+   */
+  public static long readContentHash(String path) {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path))).order(ByteOrder.LITTLE_ENDIAN);
+      int version = readVersion(buffer, path);
+      double qInit = buffer.getDouble();
+      buffer.getInt();
+      if (version >= 3) {
+        return buffer.getLong();
+      }
+      return contentHash(qInit, buffer);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Check the magic number and read the version of a checkpoint in a buffer
+   */
+  private static int readVersion(ByteBuffer buffer, String path) throws IOException {
+    if (buffer.remaining() < HEADER_BYTES_V2 || buffer.getInt() != MAGIC) {
+      throw new IOException(path + " is not a Q-table checkpoint");
+    }
+    int version = buffer.getInt();
+    if (version < 1 || version > VERSION) {
+      throw new IOException("Unsupported Q-table checkpoint version " + version);
+    }
+    if (version >= 3 && buffer.remaining() < HEADER_BYTES - 8) {
+      throw new IOException(path + " is truncated or corrupt");
+    }
+    return version;
+  }
+
+  /**
+   * FNV-1a hash of the initial value and of the remaining entry bytes of a buffer, which is
+   * left unchanged
+   */
+  private static long contentHash(double qInit, ByteBuffer entries) {
+    long hash = FNV_OFFSET_BASIS;
+    long bits = Double.doubleToLongBits(qInit);
+    for (int i = 0; i < 8; i++) {
+      hash = (hash ^ ((bits >>> (i * 8)) & 0xFF)) * FNV_PRIME;
+    }
+    for (int i = entries.position(); i < entries.limit(); i++) {
+      hash = (hash ^ (entries.get(i) & 0xFF)) * FNV_PRIME;
+    }
+    return hash;
+  }
+
+  private static void write(QTable qTable, Path path) throws IOException {
+    double qInit = qTable.getQInit();
+    ByteBuffer entries = ByteBuffer.allocate(QTable.SIZE * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    int numEntries = 0;
+    for (int index = 0; index < QTable.SIZE; index++) {
+      double q = qTable.get(index);
+      if (Double.doubleToLongBits(q) != Double.doubleToLongBits(qInit)) {
+        entries.putInt(index).putDouble(q);
+        numEntries++;
+      }
+    }
+    entries.flip();
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MAGIC).putInt(VERSION).putDouble(qInit).putInt(numEntries).putLong(contentHash(qInit, entries));
+    header.flip();
+
+    Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path tempPath = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        while (header.hasRemaining()) {
+          channel.write(header);
+        }
+        while (entries.hasRemaining()) {
+          channel.write(entries);
+        }
+        channel.force(false);
+      }
+      try {
+        Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Ring buffer of transitions held off the heap in a direct ByteBuffer, so that millions of
+ * them cost no garbage collection work.  Each transition is a fixed-width little-endian record:<br>
+ *
+ * bytes 0-3: packed board the move was made on (see TicTacToeState)<br>
+ * bytes 4-7: packed board that followed, after the environment player responded<br>
+ * bytes 8-11: reward, as a float<br>
+ * byte 12: cell played<br>
+ * byte 13: 1 if the game ended, otherwise 0<br>
+ *
+ * Once the buffer is full, each new transition replaces the oldest one.  A ReplayBuffer is
+ * not thread safe.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class ReplayBuffer {
+  static final int RECORD_BYTES = 16;
+
+  private static final int NEXT_BOARD_OFFSET = 4;
+  private static final int REWARD_OFFSET = 8;
+  private static final int CELL_OFFSET = 12;
+  private static final int TERMINAL_OFFSET = 13;
+
+  private final int capacity;
+
+  private final ByteBuffer records;
+
+  private int next = 0;
+
+  private int size = 0;
+
+  /**
+   * Creates a buffer of up to Integer.MAX_VALUE / RECORD_BYTES transitions
+   */
+  public ReplayBuffer(int capacity) {
+    if (capacity <= 0 || capacity > Integer.MAX_VALUE / RECORD_BYTES) {
+      throw new IllegalArgumentException("Unsupported replay buffer capacity " + capacity);
+    }
+    this.capacity = capacity;
+    this.records = ByteBuffer.allocateDirect(capacity * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Number of transitions held, up to the capacity
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Store a transition, replacing the oldest one if the buffer is full
+   *
+   * @return Slot that the transition was stored in
+   */
+  public int add(int board, int cell, double reward, int nextBoard, boolean terminal) {
+    int slot = next;
+    int offset = slot * RECORD_BYTES;
+    records.putInt(offset, board);
+    records.putInt(offset + NEXT_BOARD_OFFSET, nextBoard);
+    records.putFloat(offset + REWARD_OFFSET, (float)reward);
+    records.put(offset + CELL_OFFSET, (byte)cell);
+    records.put(offset + TERMINAL_OFFSET, terminal ? (byte)1 : (byte)0);
+
+    next = next + 1 == capacity ? 0 : next + 1;
+    if (size < capacity) {
+      size++;
+    }
+    return slot;
+  }
+
+  public int board(int slot) {
+    return records.getInt(slot * RECORD_BYTES);
+  }
+
+  public int nextBoard(int slot) {
+    return records.getInt(slot * RECORD_BYTES + NEXT_BOARD_OFFSET);
+  }
+
+  public double reward(int slot) {
+    return records.getFloat(slot * RECORD_BYTES + REWARD_OFFSET);
+  }
+
+  public int cell(int slot) {
+    return records.get(slot * RECORD_BYTES + CELL_OFFSET);
+  }
+
+  public boolean terminal(int slot) {
+    return records.get(slot * RECORD_BYTES + TERMINAL_OFFSET) != 0;
+  }
+
+  /**
+   * Remove every transition
+   */
+  public void clear() {
+    next = 0;
+    size = 0;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opponent for self-play, which plays from a snapshot of the Q-table that the learning agents
+ * are training.  One table holds the values of both marks, since the boards where X is to move
+ * and those where O is to move are distinct, so the opponent plays whichever mark it is given.
+ *
+ * The snapshot is a FrozenQTableOpponent published through a volatile field.  Refreshing it
+ * (see refresh and startRefreshing) copies the table while the learners keep updating it, and
+ * then swaps the new snapshot in, so workers never wait for each other or for a refresh.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class SelfPlayOpponent implements OpponentPolicy, AutoCloseable {
+  private QTable qTable;
+
+  /**
+   * Probability of playing a random empty cell instead of the greedy one
+   */
+  private double epsilon;
+
+  private volatile FrozenQTableOpponent snapshot;
+
+  private volatile long refreshCount = 0;
+
+  private ScheduledExecutorService scheduler;
+
+  public SelfPlayOpponent(QTable qTable, double epsilon) {
+    this.qTable = qTable;
+    this.epsilon = epsilon;
+    this.snapshot = new FrozenQTableOpponent(qTable);
+  }
+
+  @Override
+  public int selectCell(int board, char mark, SplittableRandom random) {
+    if (random.nextDouble() < epsilon) {
+      return OpponentPolicies.RANDOM_CELL.selectCell(board, mark, random);
+    }
+    return snapshot.bestCell(board);
+  }
+
+  @Override
+  public void moveProbabilities(int board, char mark, double[] probabilities) {
+    OpponentPolicies.RANDOM_CELL.moveProbabilities(board, mark, probabilities);
+    for (int cell = 0; cell < probabilities.length; cell++) {
+      probabilities[cell] *= epsilon;
+    }
+    probabilities[snapshot.bestCell(board)] += 1 - epsilon;
+  }
+
+  /**
+   * Take a new snapshot of the Q-table
+   */
+  public void refresh() {
+    snapshot = new FrozenQTableOpponent(qTable);
+    refreshCount++;
+  }
+
+  /**
+   * Number of snapshots taken since the first
+   */
+  public long getRefreshCount() {
+    return refreshCount;
+  }
+
+  /**
+   * Refresh the snapshot every period on a daemon thread, until close
+   */
+  public synchronized void startRefreshing(long period, TimeUnit unit) {
+    if (scheduler != null) {
+      throw new IllegalStateException("Refreshing already started");
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "self-play-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::refresh, period, period, unit);
+  }
+
+  /**
+   * Stop refreshing the snapshot
+   */
+  @Override
+  public synchronized void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableState;
+
+/**
+ * HashableState that hashes and compares a TicTacToeState by its canonical board,
+ * so that boards which are rotations or reflections of each other are equal.
+ * s() returns the original state; the transform is kept so actions can be mapped
+ * between the original and canonical frames.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class SymmetricHashableState implements HashableState {
+  private final TicTacToeState s;
+
+  /**
+   * Canonical packed board of the state
+   */
+  private final int canonicalBoard;
+
+  /**
+   * Transform (see TicTacToeSymmetry) that maps the state to its canonical board
+   */
+  private final int transform;
+
+  public SymmetricHashableState(TicTacToeState s, boolean swapColors) {
+    this.s = s;
+    this.transform = TicTacToeSymmetry.canonicalTransform(s.getBoard(), swapColors);
+    this.canonicalBoard = TicTacToeSymmetry.transform(s.getBoard(), transform);
+  }
+
+  @Override
+  public State s() {
+    return s;
+  }
+
+  public int getCanonicalBoard() {
+    return canonicalBoard;
+  }
+
+  public int getTransform() {
+    return transform;
+  }
+
+  public TicTacToeState canonicalState() {
+    return new TicTacToeState(canonicalBoard);
+  }
+
+  /**
+   * Map an action on the original state to the same move on the canonical board
+   */
+  public Action toCanonical(Action action) {
+    int cell = ((MoveAction)action).getActionId();
+    return MoveAction.of(TicTacToeSymmetry.toCanonicalCell(cell, transform));
+  }
+
+  /**
+   * Map an action on the canonical board back to the same move on the original state
+   */
+  public Action fromCanonical(Action action) {
+    int cell = ((MoveAction)action).getActionId();
+    return MoveAction.of(TicTacToeSymmetry.fromCanonicalCell(cell, transform));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if(this == o) return true;
+    if(o == null || getClass() != o.getClass()) return false;
+
+    SymmetricHashableState that = (SymmetricHashableState) o;
+
+    return canonicalBoard == that.canonicalBoard;
+  }
+
+  @Override
+  public int hashCode() {
+    return canonicalBoard;
+  }
+
+  @Override
+  public String toString() {
+    return s.toString();
+  }
+}
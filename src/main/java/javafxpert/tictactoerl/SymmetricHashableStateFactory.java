@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+
+/**
+ * HashableStateFactory that maps each TicTacToeState to its canonical form under the
+ * eight board symmetries, and optionally under exchanging X and O.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class SymmetricHashableStateFactory implements HashableStateFactory {
+  /**
+   * Whether boards with O to move are recolored so that X is to move before
+   * canonicalizing, so every entry is stored from the point of view of the mover
+   */
+  private boolean swapColors;
+
+  public SymmetricHashableStateFactory() {
+    this(false);
+  }
+
+  public SymmetricHashableStateFactory(boolean swapColors) {
+    this.swapColors = swapColors;
+  }
+
+  public boolean swapsColors() {
+    return swapColors;
+  }
+
+  @Override
+  public HashableState hashState(State s) {
+    return new SymmetricHashableState((TicTacToeState)s, swapColors);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.singleagent.learning.tdmethods.QLearning;
+import burlap.behavior.singleagent.learning.tdmethods.QLearningStateNode;
+import burlap.behavior.valuefunction.QValue;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.singleagent.SADomain;
+import burlap.statehashing.HashableState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * QLearning that stores one set of Q-values per symmetry class of boards.  Q-values are
+ * kept in the canonical frame of each board, and actions are remapped to and from that
+ * frame on every lookup, so rotations and reflections of a board share what is learned.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class SymmetricQLearning extends QLearning {
+
+  public SymmetricQLearning(SADomain domain, double gamma, SymmetricHashableStateFactory hashingFactory,
+                            double qInit, double learningRate) {
+    super(domain, gamma, hashingFactory, qInit, learningRate);
+  }
+
+  @Override
+  protected List<QValue> getQs(HashableState s) {
+    SymmetricHashableState sh = (SymmetricHashableState)s;
+    List<QValue> canonicalQs = this.getStateNode(sh).qEntry;
+    List<QValue> qs = new ArrayList<>(canonicalQs.size());
+    for (QValue qv : canonicalQs) {
+      qs.add(new QValue(sh.s(), sh.fromCanonical(qv.a), qv.q));
+    }
+    return qs;
+  }
+
+  @Override
+  protected QValue getQ(HashableState s, Action a) {
+    SymmetricHashableState sh = (SymmetricHashableState)s;
+    Action canonicalAction = sh.toCanonical(a);
+    for (QValue qv : this.getStateNode(sh).qEntry) {
+      if (qv.a.equals(canonicalAction)) {
+        return qv;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  protected double getMaxQ(HashableState s) {
+    double max = Double.NEGATIVE_INFINITY;
+    for (QValue qv : this.getStateNode(s).qEntry) {
+      if (qv.q > max) {
+        max = qv.q;
+      }
+    }
+    return max;
+  }
+
+  @Override
+  protected QLearningStateNode getStateNode(HashableState s) {
+    QLearningStateNode node = this.qFunction.get(s);
+    if (node == null) {
+      TicTacToeState canonicalState = ((SymmetricHashableState)s).canonicalState();
+      List<Action> gas = this.applicableActions(canonicalState);
+      if (gas.isEmpty()) {
+        throw new IllegalStateException("No possible actions in this state, cannot continue Q-learning");
+      }
+
+      node = new QLearningStateNode(s);
+      for (Action ga : gas) {
+        node.qEntry.add(new QValue(canonicalState, ga, this.qInitFunction.qValue(canonicalState, ga)));
+      }
+      this.qFunction.put(s, node);
+    }
+    return node;
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.policy.Policy;
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.learning.LearningAgent;
+import burlap.behavior.valuefunction.QProvider;
+import burlap.behavior.valuefunction.QValue;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionType;
+import burlap.mdp.core.action.ActionUtils;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Tabular Q-learning for tic-tac-toe that keeps its Q-values in a flat QTable,
+ * indexed by the dense index of the board (see TicTacToeStateIndex) times the nine cells.
+ * Several learners may share one AtomicQTable to train in parallel.
+ * Unless another learning policy is set, actions are chosen epsilon-greedily directly on
+ * the array, so a learning step allocates nothing beyond the Episode record.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class TabularQLearning implements LearningAgent, QProvider {
+  private static double DEFAULT_EPSILON = 0.1;
+
+  private List<ActionType> actionTypes;
+
+  private double gamma;
+
+  private double learningRate;
+
+  /**
+   * Probability of a random move when the built-in epsilon-greedy learning policy is used
+   */
+  private double epsilon = DEFAULT_EPSILON;
+
+  /**
+   * Stream that exploratory moves and ties between greedy moves are drawn from
+   */
+  private SplittableRandom random = new SplittableRandom();
+
+  /**
+   * Learning policy to follow instead of the built-in epsilon-greedy one, or null
+   */
+  private Policy learningPolicy;
+
+  /**
+   * Q-values, indexed by QTable.baseIndex(board) + cell
+   */
+  private QTable qTable;
+
+  /**
+   * Experience replay that transitions are stored in and replayed from, or null
+   */
+  private ExperienceReplay experienceReplay;
+
+  public TabularQLearning(SADomain domain, double gamma, double qInit, double learningRate) {
+    this(domain, gamma, new ArrayQTable(qInit), learningRate);
+  }
+
+  /**
+   * Creates a learner that reads and updates the given, possibly shared, Q-table
+   */
+  public TabularQLearning(SADomain domain, double gamma, QTable qTable, double learningRate) {
+    this.actionTypes = domain.getActionTypes();
+    this.gamma = gamma;
+    this.qTable = qTable;
+    this.learningRate = learningRate;
+  }
+
+  public QTable getQTable() {
+    return qTable;
+  }
+
+  public void setEpsilon(double epsilon) {
+    this.epsilon = epsilon;
+  }
+
+  public double getEpsilon() {
+    return epsilon;
+  }
+
+  /**
+   * Draw exploratory moves, and ties between greedy moves, from the given stream, for example
+   * one split from a seeded root so that a run can be repeated
+   */
+  public void setRandom(SplittableRandom random) {
+    this.random = random;
+  }
+
+  public SplittableRandom getRandom() {
+    return random;
+  }
+
+  /**
+   * Follow the given policy while learning, instead of the built-in epsilon-greedy policy
+   */
+  public void setLearningPolicy(Policy learningPolicy) {
+    this.learningPolicy = learningPolicy;
+  }
+
+  /**
+   * Store every transition in an ExperienceReplay, and replay a mini-batch from it after each
+   * step, or stop replaying if null.  An ExperienceReplay should not be shared between learners
+   * on different threads.
+   */
+  public void setExperienceReplay(ExperienceReplay experienceReplay) {
+    this.experienceReplay = experienceReplay;
+  }
+
+  public ExperienceReplay getExperienceReplay() {
+    return experienceReplay;
+  }
+
+  /**
+   * Reset every Q-value to its initial value
+   */
+  public void resetQTable() {
+    qTable.reset();
+  }
+
+  @Override
+  public Episode runLearningEpisode(Environment env) {
+    return runLearningEpisode(env, -1);
+  }
+
+  @Override
+  public Episode runLearningEpisode(Environment env, int maxSteps) {
+    State initialState = env.currentObservation();
+    Episode episode = new Episode(initialState);
+
+    int board = ((TicTacToeState)initialState).getBoard();
+    int numSteps = 0;
+    while (!env.isInTerminalState() && (numSteps < maxSteps || maxSteps == -1)) {
+      Action action;
+      if (learningPolicy == null) {
+        action = MoveAction.of(selectCell(board));
+      }
+      else {
+        action = learningPolicy.action(new TicTacToeState(board));
+      }
+      int cell = ((MoveAction)action).getActionId();
+
+      EnvironmentOutcome eo = env.executeAction(action);
+      int nextBoard = ((TicTacToeState)eo.op).getBoard();
+
+      double maxQ = eo.terminated ? 0. : maxQ(nextBoard);
+      qTable.update(qIndex(board, cell), learningRate, eo.r + gamma * maxQ);
+
+      if (experienceReplay != null) {
+        experienceReplay.add(board, cell, eo.r, nextBoard, eo.terminated);
+        experienceReplay.replay(qTable, gamma, learningRate);
+      }
+
+      episode.transition(action, eo.op, eo.r);
+      board = ((TicTacToeState)env.currentObservation()).getBoard();
+      numSteps++;
+    }
+
+    return episode;
+  }
+
+  @Override
+  public List<QValue> qValues(State s) {
+    int board = ((TicTacToeState)s).getBoard();
+    List<Action> actions = ActionUtils.allApplicableActionsForTypes(actionTypes, s);
+    List<QValue> qs = new ArrayList<>(actions.size());
+    for (Action a : actions) {
+      qs.add(new QValue(s, a, qTable.get(qIndex(board, ((MoveAction)a).getActionId()))));
+    }
+    return qs;
+  }
+
+  @Override
+  public double qValue(State s, Action a) {
+    return qTable.get(qIndex(((TicTacToeState)s).getBoard(), ((MoveAction)a).getActionId()));
+  }
+
+  @Override
+  public double value(State s) {
+    int board = ((TicTacToeState)s).getBoard();
+    if (TicTacToeRules.status(board) != TicTacToeRules.STATUS_IN_PROGRESS) {
+      return 0.;
+    }
+    return maxQ(board);
+  }
+
+  /**
+   * Q-value of playing a cell on a packed board
+   */
+  public double qValue(int board, int cell) {
+    return qTable.get(qIndex(board, cell));
+  }
+
+  /**
+   * Largest Q-value among the empty cells of a packed board
+   */
+  private double maxQ(int board) {
+    int base = QTable.baseIndex(board);
+    double max = Double.NEGATIVE_INFINITY;
+    for (int empty = TicTacToeState.emptyMask(board); empty != 0; empty &= empty - 1) {
+      double q = qTable.get(base + Integer.numberOfTrailingZeros(empty));
+      if (q > max) {
+        max = q;
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Epsilon-greedy choice of an empty cell, breaking ties between greedy cells at random
+   */
+  private int selectCell(int board) {
+    int empty = TicTacToeState.emptyMask(board);
+    if (random.nextDouble() < epsilon) {
+      return TicTacToeRules.nthCell(empty, random.nextInt(Integer.bitCount(empty)));
+    }
+
+    int base = QTable.baseIndex(board);
+    double max = Double.NEGATIVE_INFINITY;
+    int bestCells = 0;
+    for (int remaining = empty; remaining != 0; remaining &= remaining - 1) {
+      int cell = Integer.numberOfTrailingZeros(remaining);
+      double q = qTable.get(base + cell);
+      if (q > max) {
+        max = q;
+        bestCells = 1 << cell;
+      }
+      else if (q == max) {
+        bestCells |= 1 << cell;
+      }
+    }
+    return TicTacToeRules.nthCell(bestCells, random.nextInt(Integer.bitCount(bestCells)));
+  }
+
+  private static int qIndex(int board, int cell) {
+    return QTable.baseIndex(board) + cell;
+  }
+}
@@ -22,24 +22,24 @@ import burlap.mdp.singleagent.environment.EnvironmentOutcome;
 import burlap.mdp.singleagent.environment.extensions.EnvironmentObserver;
 import burlap.mdp.singleagent.environment.extensions.EnvironmentServerInterface;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.logging.XMLFormatter;
 
 /**
  * @author James L. Weaver (Twitter: @JavaFXpert)
  */
 public class TicTacToeEnv implements Environment, EnvironmentServerInterface {
-  private static int WIN_REWARD = 10;
-  private static int LOSE_REWARD = -10;
-  private static int MOVE_REWARD = -1;
+  static int WIN_REWARD = 10;
+  static int LOSE_REWARD = -10;
+  static int MOVE_REWARD = -1;
 
   /**
-   * String representation of cells on the game board.
-   * For example: "XOIIXOXIO"
+   * Packed game board, X occupancy in the low nine bits and O occupancy in the next nine.
+   * See TicTacToeState
    */
-  private StringBuffer gameBoard;
+  private int gameBoard;
 
   /**
    * Game status, specifically, whether the game is in-progress, or if X won,
@@ -58,27 +58,27 @@ public class TicTacToeEnv implements Environment, EnvironmentServerInterface {
   private int reward = 0;
   
   /**
-   * Policy for the agent embedded in the environment. <br>
-   * 0 employs a strategy of playing the first empty cell with an "O"<br>
-   *
-   * 1 employs a strategy of playing a completely random empty cell with an "O"<br>
-   *
-   * 2 employ a strategy that randomly places "O" except when there are opportunities to block an "X" three-in-a row<br>
-   *
-   * 3 employs a strategy that randomly places "O" except when
-   * there are opportunities to play third "O" in a row, or to block an "X" three-in-a row<br>
-   *
-   * 4 employs a strategy that prefers center and random corner placement,
-   * except when there are opportunities to play a third "O" in a row, or block an "X" three-in-a row
-   *
+   * Policy for the agent embedded in the environment.  See setAgentPolicy for the built-in policies.
+   */
+  private OpponentPolicy opponentPolicy = OpponentPolicies.forId(4);
+
+  /**
+   * Stream that the environment player's random moves are drawn from
    */
-  private int agentPolicy = 4;
+  private SplittableRandom random = new SplittableRandom();
 
   /**
    * Most recent state, to be returned by currentObservation() method
    */
   TicTacToeState currentObservationState;
 
+  /**
+   * Cells played by makeMove that have not been taken back by unmakeMove, oldest first
+   */
+  private int[] moveStack = new int[TicTacToeState.NUM_CELLS];
+
+  private int moveDepth = 0;
+
   protected List<EnvironmentObserver> observers = new LinkedList<EnvironmentObserver>();
 
   /**
@@ -120,38 +120,74 @@ public class TicTacToeEnv implements Environment, EnvironmentServerInterface {
    * 4 employs a strategy that prefers center and random corner placement,
    * except when there are opportunities to play a third "O" in a row, or block an "X" three-in-a row<br>
    *
+   * 5 employs perfect play (negamax), so it never loses<br>
+   *
    */
   public void setAgentPolicy(int policy) {
-	  this.agentPolicy = policy;
+	  this.opponentPolicy = OpponentPolicies.forId(policy);
   }
   
+  /**
+   * @return The number of the built-in policy of the agent embedded in the environment,
+   * or -1 if another policy was set through setOpponentPolicy
+   */
   public int getAgentPolicy() {
-	  return this.agentPolicy;
+	  return OpponentPolicies.idOf(this.opponentPolicy);
+  }
+
+  /**
+   * Sets the policy for the agent embedded in the environment, which may be one of
+   * OpponentPolicies or any other implementation, such as a FrozenQTableOpponent
+   */
+  public void setOpponentPolicy(OpponentPolicy opponentPolicy) {
+    this.opponentPolicy = opponentPolicy;
+  }
+
+  public OpponentPolicy getOpponentPolicy() {
+    return opponentPolicy;
+  }
+
+  /**
+   * Draw the random moves of the environment player from the given stream, for example one
+   * split from a seeded root (see ParallelEpisodeRunner.setSeed) so that a run can be repeated
+   */
+  public void setRandom(SplittableRandom random) {
+    this.random = random;
+  }
+
+  public SplittableRandom getRandom() {
+    return random;
   }
   
   public void setState(TicTacToeState state) {
-	  gameBoard = new StringBuffer(state.gameBoard);
-	  gameStatus = evalGameStatus();
+	  moveDepth = 0;
+	  gameBoard = state.getBoard();
+	  gameStatus = TicTacToeRules.gameStatus(gameBoard);
 
 	  terminated = 
 			  gameStatus.equals(TicTacToeState.GAME_STATUS_O_WON) || 
 			  gameStatus.equals(TicTacToeState.GAME_STATUS_X_WON) || 
 			  gameStatus.equals(TicTacToeState.GAME_STATUS_CATS_GAME);
 	  
-	  currentObservationState = new TicTacToeState(gameBoard.toString(), gameStatus);
+	  currentObservationState = new TicTacToeState(gameBoard);
   }
 
   @Override
   public void resetEnvironment() {
-    gameBoard = new StringBuffer(TicTacToeState.EMPTY_BOARD);
+    moveDepth = 0;
+    gameBoard = TicTacToeState.packBoard(TicTacToeState.EMPTY_BOARD);
     if (envPlayerMark == TicTacToeState.X_MARK) {
-      playRandomCell();
+      playCell(OpponentPolicies.RANDOM_CELL.selectCell(gameBoard, envPlayerMark, random), envPlayerMark);
     }
     gameStatus = TicTacToeState.GAME_STATUS_IN_PROGRESS;
 
-    currentObservationState = new TicTacToeState(gameBoard.toString(), gameStatus);
+    currentObservationState = new TicTacToeState(gameBoard);
 
     terminated = false;
+
+    for (EnvironmentObserver observer : observers) {
+      observer.observeEnvironmentReset(this);
+    }
   }
 
   @Override
@@ -185,30 +221,37 @@ public class TicTacToeEnv implements Environment, EnvironmentServerInterface {
 
   @Override
   public EnvironmentOutcome executeAction(Action action) {
+    if (moveDepth != 0) {
+      throw new IllegalStateException(moveDepth + " lookahead moves not taken back with unmakeMove");
+    }
     MoveAction moveAction = (MoveAction)action;
 
-    TicTacToeState priorState = new TicTacToeState(gameBoard.toString(), gameStatus);
+    for (EnvironmentObserver observer : observers) {
+      observer.observeEnvironmentActionInitiation(currentObservationState, action);
+    }
+
+    TicTacToeState priorState = new TicTacToeState(gameBoard);
 
     // actionId is the same as the cell number (0 - 8) of the move
     int cellNum = moveAction.getActionId();
 
     if (cellNum < 0 || cellNum >= TicTacToeState.NUM_CELLS ||
-        (gameBoard.charAt(cellNum) != TicTacToeState.EMPTY)) {
+        (cellAt(cellNum) != TicTacToeState.EMPTY)) {
 
       // Illegal move attempted so don't change
       System.out.println("Illegal move attempted to cell " + cellNum);
     }
     else {
-      gameBoard.setCharAt(cellNum, opposingPlayerMark);
+      playCell(cellNum, opposingPlayerMark);
     }
 
-    gameStatus = evalGameStatus();
+    gameStatus = TicTacToeRules.gameStatus(gameBoard);
     //if (gameStatus.equals(envPlayerMark)) {
-    if (gameStatus.toCharArray()[0] == envPlayerMark) {
+    if (gameStatus.charAt(0) == envPlayerMark) {
       reward = LOSE_REWARD;
       terminated = true;
     }
-    else if (gameStatus.toCharArray()[0] == opposingPlayerMark) {
+    else if (gameStatus.charAt(0) == opposingPlayerMark) {
 
       // TODO: Consider removing this condition, as it doen't seem possible to encounter
       reward = WIN_REWARD;
@@ -222,48 +265,14 @@ public class TicTacToeEnv implements Environment, EnvironmentServerInterface {
       reward = MOVE_REWARD;
       terminated = false;
 
-      switch(agentPolicy) {
-      case 0:
-    	  playFirstEmptyCell();
-    	  break;
-      case 1:
-    	  playRandomCell();
-    	  break;
-      case 2:
-    	  blockOrPlayRandom();
-    	  break;
-      case 3:
-    	  winOrblockOrPlayRandom();
-    	  break;
-      case 4:
-    	  winOrBlockOrCenterOrRandomCornerOrPlayRandom();
-    	  break;
-      default:
-    	  winOrBlockOrCenterOrRandomCornerOrPlayRandom();
-      }
-      // Uncomment to employ a strategy of playing the first empty cell with an "O"
-      //playFirstEmptyCell();
-
-      // Uncomment to employ a strategy of playing a completely random empty cell with an "O"
-      //playRandomCell();
-
-      // Uncomment to employ a strategy that randomly places "O" except when there are opportunities to block an "X" three-in-a row
-      //blockOrPlayRandom();
-
-      // Uncomment to employ a strategy that randomly places "O" except when
-      // there are opportunities to play third "O" in a row, or to block an "X" three-in-a row
-      //winOrblockOrPlayRandom();
+      playOpponentMove();
 
-      // Uncomment to employ a strategy that prefers center and random corner placement,
-      // except when there are opportunities to play a third "O" in a row, or block an "X" three-in-a row
-      //winOrBlockOrCenterOrRandomCornerOrPlayRandom();
-
-      gameStatus = evalGameStatus();  // Evaluate game status after opposing player has responded, and update terminated state
-      if (gameStatus.toCharArray()[0] == envPlayerMark) {
+      gameStatus = TicTacToeRules.gameStatus(gameBoard);  // Evaluate game status after opposing player has responded, and update terminated state
+      if (gameStatus.charAt(0) == envPlayerMark) {
         reward = LOSE_REWARD;
         terminated = true;
       }
-      else if (gameStatus.toCharArray()[0] == opposingPlayerMark) {
+      else if (gameStatus.charAt(0) == opposingPlayerMark) {
 
         // TODO: Consider removing this condition, as it doen't seem possible to encounter
         reward = WIN_REWARD;
@@ -276,13 +285,17 @@ public class TicTacToeEnv implements Environment, EnvironmentServerInterface {
       }
     }
 
-    TicTacToeState newState = new TicTacToeState(gameBoard.toString(), gameStatus);
+    TicTacToeState newState = new TicTacToeState(gameBoard);
 
     currentObservationState = newState.copy();
 
     EnvironmentOutcome environmentOutcome =
         new EnvironmentOutcome(priorState, action, newState, reward, terminated);
 
+    for (EnvironmentObserver observer : observers) {
+      observer.observeEnvironmentInteraction(environmentOutcome);
+    }
+
     return environmentOutcome;
   }
 
@@ -298,9 +311,9 @@ public class TicTacToeEnv implements Environment, EnvironmentServerInterface {
   
   public double rewardForStatus(String status) {
 	  double rewardVal = 0;
-	  if (status.toCharArray()[0] == envPlayerMark) {
+	  if (status.charAt(0) == envPlayerMark) {
 		 rewardVal = LOSE_REWARD;
-	 } else if (status.toCharArray()[0] == opposingPlayerMark) {
+	 } else if (status.charAt(0) == opposingPlayerMark) {
 		 rewardVal = WIN_REWARD;
 	 } else {
 		 rewardVal = MOVE_REWARD;
@@ -329,403 +342,135 @@ public class TicTacToeEnv implements Environment, EnvironmentServerInterface {
   }
 
   /**
-   * Evaluate the status of the game (in-progress, or who won)
+   * Play a move for whichever mark is to move (X moves first), in place and without allocating,
+   * for lookahead such as tree search or rollouts.  Every makeMove must be taken back with
+   * unmakeMove before the environment is stepped again (executeAction throws otherwise), and
+   * resetEnvironment discards any that are left.  The current observation and terminal state of
+   * the environment are not changed.
    *
-   * @return Indicator of in-progress, or who won
+   * @param cell Cell (0-8) in legalMoveMask to play
+   * @throws IllegalArgumentException if the cell is taken or the game on the board is over
    */
-  private String evalGameStatus() {
-    // Start with the assumption that all cells are occupied but nobody won
-    String gameStatus = TicTacToeState.GAME_STATUS_CATS_GAME;
-
-    // Check if this game is still in progress
-    for (int idx = 0; idx < TicTacToeState.NUM_CELLS; idx++) {
-      if (gameBoard.charAt(idx) ==  TicTacToeState.EMPTY) {
-        gameStatus = TicTacToeState.GAME_STATUS_IN_PROGRESS;
-        break;
-      }
-    }
-
-    // Check if X won
-    if ((gameBoard.charAt(0) == TicTacToeState.X_MARK && gameBoard.charAt(1) == TicTacToeState.X_MARK && gameBoard.charAt(2) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(3) == TicTacToeState.X_MARK && gameBoard.charAt(4) == TicTacToeState.X_MARK && gameBoard.charAt(5) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(6) == TicTacToeState.X_MARK && gameBoard.charAt(7) == TicTacToeState.X_MARK && gameBoard.charAt(8) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(0) == TicTacToeState.X_MARK && gameBoard.charAt(3) == TicTacToeState.X_MARK && gameBoard.charAt(6) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(1) == TicTacToeState.X_MARK && gameBoard.charAt(4) == TicTacToeState.X_MARK && gameBoard.charAt(7) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(2) == TicTacToeState.X_MARK && gameBoard.charAt(5) == TicTacToeState.X_MARK && gameBoard.charAt(8) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(0) == TicTacToeState.X_MARK && gameBoard.charAt(4) == TicTacToeState.X_MARK && gameBoard.charAt(8) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(2) == TicTacToeState.X_MARK && gameBoard.charAt(4) == TicTacToeState.X_MARK && gameBoard.charAt(6) == TicTacToeState.X_MARK)) {
-      gameStatus = TicTacToeState.GAME_STATUS_X_WON;
-      //System.out.println("X won");
-      //System.out.print(envPlayerMark == TicTacToeState.O_MARK ? "X" : "x");
-    }
-    else if ((gameBoard.charAt(0) == TicTacToeState.O_MARK && gameBoard.charAt(1) == TicTacToeState.O_MARK && gameBoard.charAt(2) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(3) == TicTacToeState.O_MARK && gameBoard.charAt(4) == TicTacToeState.O_MARK && gameBoard.charAt(5) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(6) == TicTacToeState.O_MARK && gameBoard.charAt(7) == TicTacToeState.O_MARK && gameBoard.charAt(8) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(0) == TicTacToeState.O_MARK && gameBoard.charAt(3) == TicTacToeState.O_MARK && gameBoard.charAt(6) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(1) == TicTacToeState.O_MARK && gameBoard.charAt(4) == TicTacToeState.O_MARK && gameBoard.charAt(7) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(2) == TicTacToeState.O_MARK && gameBoard.charAt(5) == TicTacToeState.O_MARK && gameBoard.charAt(8) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(0) == TicTacToeState.O_MARK && gameBoard.charAt(4) == TicTacToeState.O_MARK && gameBoard.charAt(8) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(2) == TicTacToeState.O_MARK && gameBoard.charAt(4) == TicTacToeState.O_MARK && gameBoard.charAt(6) == TicTacToeState.O_MARK)) {
-      gameStatus = TicTacToeState.GAME_STATUS_O_WON;
-      //System.out.println("O won");
-      //System.out.print(envPlayerMark == TicTacToeState.X_MARK ? "O" : "o");
+  public void makeMove(int cell) {
+    if (cell < 0 || cell >= TicTacToeState.NUM_CELLS || (legalMoveMask() & (1 << cell)) == 0) {
+      throw new IllegalArgumentException("Illegal move to cell " + cell);
     }
+    playCell(cell, sideToMove());
+    moveStack[moveDepth++] = cell;
+  }
 
-    if (gameStatus.equals(TicTacToeState.GAME_STATUS_CATS_GAME)) {
-      //System.out.println("Cat's game");
-      //System.out.print(".");
+  /**
+   * Take back the most recent makeMove
+   */
+  public void unmakeMove() {
+    if (moveDepth == 0) {
+      throw new IllegalStateException("No move to take back");
     }
-    return gameStatus;
+    int cell = moveStack[--moveDepth];
+    gameBoard &= ~((1 << cell) | (1 << (cell + TicTacToeState.O_SHIFT)));
   }
 
   /**
-   * Simple strategy that plays the first empty cell
+   * Number of moves made with makeMove that have not been taken back
    */
-  private void playFirstEmptyCell() {
-    gameBoard.setCharAt(gameBoard.indexOf(Character.toString(TicTacToeState.EMPTY)), envPlayerMark);
+  public int getMoveDepth() {
+    return moveDepth;
   }
 
   /**
-   * Simple strategy that plays a completely random empty cell
+   * Mark (X or O) that is to move on the game board
    */
-  private void playRandomCell() {
-	int[] emptyCells = getEmptyGameboardIndices(false);
-
-	int selectedIndex = (int)(Math.random() * emptyCells.length);
-	gameBoard.setCharAt(emptyCells[selectedIndex], envPlayerMark);
+  public char sideToMove() {
+    return Integer.bitCount(TicTacToeState.markMask(gameBoard, TicTacToeState.X_MARK)) ==
+        Integer.bitCount(TicTacToeState.markMask(gameBoard, TicTacToeState.O_MARK)) ?
+        TicTacToeState.X_MARK : TicTacToeState.O_MARK;
   }
 
   /**
-   * Strategy that randomly places its mark except when there are opportunities to block a three-in-a row
+   * Status code (see TicTacToeRules) of the game board, including moves made with makeMove
    */
-  private void blockOrPlayRandom() {
-    int cellIndexToPlay = evalGameboardForBlock(opposingPlayerMark);
-    if (cellIndexToPlay != -1) {
-      gameBoard.setCharAt(cellIndexToPlay, envPlayerMark);
-    }
-    else {
-      playRandomCell();
-    }
+  public int boardStatus() {
+    return TicTacToeRules.status(gameBoard);
   }
 
   /**
-   * Strategy that randomly places it mark except when there are opportunities to
-   * play third mark in a row, or to block a three-in-a row
+   * Mask of the cells that can be played on the game board, which is 0 once the game is over
    */
-  private void winOrblockOrPlayRandom() {
-    int cellIndexToPlay = evalGameboardForWin(envPlayerMark);
-    if (cellIndexToPlay != -1) {
-      gameBoard.setCharAt(cellIndexToPlay, envPlayerMark);
-      return;
-    }
-    cellIndexToPlay = evalGameboardForBlock(opposingPlayerMark);
-    if (cellIndexToPlay != -1) {
-      gameBoard.setCharAt(cellIndexToPlay, envPlayerMark);
-    }
-    else {
-      playRandomCell();
-    }
+  public int legalMoveMask() {
+    return TicTacToeRules.status(gameBoard) == TicTacToeRules.STATUS_IN_PROGRESS ?
+        TicTacToeState.emptyMask(gameBoard) : 0;
   }
 
   /**
-   * Strategy that prefers center or random corner placement, except when
-   * there are opportunities to play a third mark in a row, or block a three-in-a-row
-   * TODO: Refactor to remove repeating code
+   * Reward the learning agent would receive for a move that leaves the game board as it is
    */
-  private void winOrBlockOrCenterOrRandomCornerOrPlayRandom() {
-    int cellIndexToPlay = evalGameboardForWin(envPlayerMark);
-    if (cellIndexToPlay != -1) {
-      gameBoard.setCharAt(cellIndexToPlay, envPlayerMark);
-      return;
+  public int boardReward() {
+    int status = TicTacToeRules.status(gameBoard);
+    if (status == TicTacToeRules.STATUS_X_WON) {
+      return opposingPlayerMark == TicTacToeState.X_MARK ? WIN_REWARD : LOSE_REWARD;
     }
-    cellIndexToPlay = evalGameboardForBlock(opposingPlayerMark);
-    if (cellIndexToPlay != -1) {
-      gameBoard.setCharAt(cellIndexToPlay, envPlayerMark);
-    }
-    else {
-      playRandomCornerOrCenterOrRandomCell();
+    if (status == TicTacToeRules.STATUS_O_WON) {
+      return opposingPlayerMark == TicTacToeState.O_MARK ? WIN_REWARD : LOSE_REWARD;
     }
+    return MOVE_REWARD;
   }
 
   /**
-   * Play a random empty corner cell or center cell.
-   * Note that a counter is used to attempt that number of random
-   * placements, in case none of the corners or center cell is empty.
+   * Mark (X, O or EMPTY) in a cell of the game board
    */
-  private void playRandomCornerOrCenterOrRandomCell() {
-
-    int[] cornersAndCenter = getEmptyGameboardIndices(true);
-    if(cornersAndCenter.length > 0) {
-    	int chosenIndex = (int)(Math.random() * cornersAndCenter.length);
-    	gameBoard.setCharAt(cornersAndCenter[chosenIndex], envPlayerMark);
-    } else {
-    	playRandomCell();
-    }
+  private char cellAt(int cell) {
+    return TicTacToeState.markAt(gameBoard, cell);
   }
-  
+
   /**
-   * Gets all empty cells in the gameboard. 
-   * @param onlyIncludeCenterAndCorners A boolean indicating to return all cells (false) or 
-   * just the corner and center cells (indices 0, 2, 4, 6, 8). 
-   * @return Returns an int array containing only valid, empty indices in the gameboard. 
+   * Place a mark in an empty cell of the game board
    */
-  private int[] getEmptyGameboardIndices(boolean onlyIncludeCenterAndCorners) {
-	  List<Integer> indicies = new ArrayList<Integer>();
-	  for(int i=0; i<TicTacToeState.NUM_CELLS; i++) {
-		  if(gameBoard.charAt(i) == TicTacToeState.EMPTY) {
-			  if (onlyIncludeCenterAndCorners) {
-				  if (i % 2 == 0) {
-					  indicies.add(i);
-				  }
-			  } else {
-				  indicies.add(i);
-			  }
-		  }
-	  }
-
-	  int[] retVal = new int[indicies.size()];
-	  for(int i=0; i<indicies.size(); i++) {
-		  retVal[i] = indicies.get(i);
-	  }
-	  
-	  return retVal;
+  private void playCell(int cell, char mark) {
+    gameBoard = TicTacToeState.withMark(gameBoard, cell, mark);
   }
 
   /**
-   * Evaluate the gameboard for an opportunity to block opposing player three-in-a row
-   * TODO: Modify with a less brute-force, and less verbose, approach.  Possibly factor with evalGameboardForWin() method
-   *
-   * @return Zero-based index of cell that would block, or -1 if no cells apply
+   * Play the move chosen by the policy of the agent embedded in the environment
    */
-  private int evalGameboardForBlock(char markToBlock) {
-    int blockingPlay = -1;
-    /**
-     * XXI
-     * ???
-     * ???
-     */
-    if (gameBoard.charAt(0) == markToBlock && gameBoard.charAt(1) == markToBlock && gameBoard.charAt(2) == TicTacToeState.EMPTY) {
-      blockingPlay = 2;
-    }
-    /**
-     * XIX
-     * ???
-     * ???
-     */
-    else if (gameBoard.charAt(0) == markToBlock && gameBoard.charAt(1) == TicTacToeState.EMPTY && gameBoard.charAt(2) == markToBlock) {
-      blockingPlay = 1;
-    }
-    /**
-     * IXX
-     * ???
-     * ???
-     */
-    else if (gameBoard.charAt(0) == TicTacToeState.EMPTY && gameBoard.charAt(1) == markToBlock && gameBoard.charAt(2) == markToBlock) {
-      blockingPlay = 0;
-    }
-    /**
-     * ???
-     * XXI
-     * ???
-     */
-    else if (gameBoard.charAt(3) == markToBlock && gameBoard.charAt(4) == markToBlock && gameBoard.charAt(5) == TicTacToeState.EMPTY) {
-      blockingPlay = 5;
-    }
-    /**
-     * ???
-     * XIX
-     * ???
-     */
-    else if (gameBoard.charAt(3) == markToBlock && gameBoard.charAt(4) == TicTacToeState.EMPTY && gameBoard.charAt(5) == markToBlock) {
-      blockingPlay = 4;
-    }
-    /**
-     * ???
-     * IXX
-     * ???
-     */
-    else if (gameBoard.charAt(3) == TicTacToeState.EMPTY && gameBoard.charAt(4) == markToBlock && gameBoard.charAt(5) == markToBlock) {
-      blockingPlay = 3;
+  private void playOpponentMove() {
+    int cellNum = opponentPolicy.selectCell(gameBoard, envPlayerMark, random);
+    if (cellNum < 0 || cellNum >= TicTacToeState.NUM_CELLS || cellAt(cellNum) != TicTacToeState.EMPTY) {
+      throw new IllegalStateException("Environment player policy chose illegal cell " + cellNum);
     }
-    /**
-     * ???
-     * ???
-     * XXI
-     */
-    else if (gameBoard.charAt(6) == markToBlock && gameBoard.charAt(7) == markToBlock && gameBoard.charAt(8) == TicTacToeState.EMPTY) {
-      blockingPlay = 8;
-    }
-    /**
-     * ???
-     * ???
-     * XIX
-     */
-    else if (gameBoard.charAt(6) == markToBlock && gameBoard.charAt(7) == TicTacToeState.EMPTY && gameBoard.charAt(8) == markToBlock) {
-      blockingPlay = 7;
-    }
-    /**
-     * ???
-     * ???
-     * IXX
-     */
-    else if (gameBoard.charAt(6) == TicTacToeState.EMPTY && gameBoard.charAt(7) == markToBlock && gameBoard.charAt(8) == markToBlock) {
-      blockingPlay = 6;
-    }
-    /**
-     * X??
-     * X??
-     * I??
-     */
-    else if (gameBoard.charAt(0) == markToBlock && gameBoard.charAt(3) == markToBlock && gameBoard.charAt(6) == TicTacToeState.EMPTY) {
-      blockingPlay = 6;
-    }
-    /**
-     * X??
-     * I??
-     * X??
-     */
-    else if (gameBoard.charAt(0) == markToBlock && gameBoard.charAt(3) == TicTacToeState.EMPTY && gameBoard.charAt(6) == markToBlock) {
-      blockingPlay = 3;
-    }
-    /**
-     * I??
-     * X??
-     * X??
-     */
-    else if (gameBoard.charAt(0) == TicTacToeState.EMPTY && gameBoard.charAt(3) == markToBlock && gameBoard.charAt(6) == markToBlock) {
-      blockingPlay = 0;
-    }
-    /**
-     * ?X?
-     * ?X?
-     * ?I?
-     */
-    else if (gameBoard.charAt(1) == markToBlock && gameBoard.charAt(4) == markToBlock && gameBoard.charAt(7) == TicTacToeState.EMPTY) {
-      blockingPlay = 7;
-    }
-    /**
-     * ?X?
-     * ?I?
-     * ?X?
-     */
-    else if (gameBoard.charAt(1) == markToBlock && gameBoard.charAt(4) == TicTacToeState.EMPTY && gameBoard.charAt(7) == markToBlock) {
-      blockingPlay = 4;
-    }
-    /**
-     * ?I?
-     * ?X?
-     * ?X?
-     */
-    else if (gameBoard.charAt(1) == TicTacToeState.EMPTY && gameBoard.charAt(4) == markToBlock && gameBoard.charAt(7) == markToBlock) {
-      blockingPlay = 1;
-    }
-    /**
-     * ??X
-     * ??X
-     * ??I
-     */
-    else if (gameBoard.charAt(2) == markToBlock && gameBoard.charAt(5) == markToBlock && gameBoard.charAt(8) == TicTacToeState.EMPTY) {
-      blockingPlay = 8;
-    }
-    /**
-     * ??X
-     * ??I
-     * ??X
-     */
-    else if (gameBoard.charAt(2) == markToBlock && gameBoard.charAt(5) == TicTacToeState.EMPTY && gameBoard.charAt(8) == markToBlock) {
-      blockingPlay = 5;
-    }
-    /**
-     * ??I
-     * ??X
-     * ??X
-     */
-    else if (gameBoard.charAt(2) == TicTacToeState.EMPTY && gameBoard.charAt(5) == markToBlock && gameBoard.charAt(8) == markToBlock) {
-      blockingPlay = 2;
-    }
-    /**
-     * X??
-     * ?X?
-     * ??I
-     */
-    else if (gameBoard.charAt(0) == markToBlock && gameBoard.charAt(4) == markToBlock && gameBoard.charAt(8) == TicTacToeState.EMPTY) {
-      blockingPlay = 8;
-    }
-    /**
-     * X??
-     * ?I?
-     * ??X
-     */
-    else if (gameBoard.charAt(0) == markToBlock && gameBoard.charAt(4) == TicTacToeState.EMPTY && gameBoard.charAt(8) == markToBlock) {
-      blockingPlay = 4;
-    }
-    /**
-     * I??
-     * ?X?
-     * ??X
-     */
-    else if (gameBoard.charAt(0) == TicTacToeState.EMPTY && gameBoard.charAt(4) == markToBlock && gameBoard.charAt(8) == markToBlock) {
-      blockingPlay = 0;
-    }
-    /**
-     * ??X
-     * ?X?
-     * I??
-     */
-    else if (gameBoard.charAt(2) == markToBlock && gameBoard.charAt(4) == markToBlock && gameBoard.charAt(6) == TicTacToeState.EMPTY) {
-      blockingPlay = 6;
-    }
-    /**
-     * ??X
-     * ?I?
-     * X??
-     */
-    else if (gameBoard.charAt(2) == markToBlock && gameBoard.charAt(4) == TicTacToeState.EMPTY && gameBoard.charAt(6) == markToBlock) {
-      blockingPlay = 4;
-    }
-    /**
-     * ??I
-     * ?X?
-     * X??
-     */
-    else if (gameBoard.charAt(2) == TicTacToeState.EMPTY && gameBoard.charAt(4) == markToBlock && gameBoard.charAt(6) == markToBlock) {
-      blockingPlay = 2;
-    }
-    return blockingPlay;
+    playCell(cellNum, envPlayerMark);
   }
 
   /**
-   * Evaluate the gameboard for an opportunity to get three-in-a row
-   * TODO: Modify with a less brute-force, and less verbose, approach.  Possibly factor with evalGameboardForBlock() method
-   *
-   * @return Zero-based index of cell that would win, or -1 if no cells apply
+   * Cell indices of a cell mask, in increasing order
    */
-  private int evalGameboardForWin(char playerMark) {
-	return evalGameboardForBlock(playerMark);
+  private static int[] cellIndices(int cells) {
+    int[] indices = new int[Integer.bitCount(cells)];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = Integer.numberOfTrailingZeros(cells);
+      cells &= cells - 1;
+    }
+    return indices;
   }
-  
+
   public int indexForEnemyBlock() {
-	  return this.evalGameboardForBlock(opposingPlayerMark);
+	  return TicTacToeRules.lineCompletionCell(
+	      TicTacToeState.markMask(gameBoard, opposingPlayerMark), TicTacToeState.emptyMask(gameBoard));
   }
   
   public int indexForEnemyWin() {
-	  return this.evalGameboardForWin(envPlayerMark);
+	  return TicTacToeRules.lineCompletionCell(
+	      TicTacToeState.markMask(gameBoard, envPlayerMark), TicTacToeState.emptyMask(gameBoard));
   }
   
   public int[] emptyCellIndices() {
-	  return this.getEmptyGameboardIndices(false);
+	  return cellIndices(TicTacToeState.emptyMask(gameBoard));
   }
   
   public int[] emptyCornerAndCenterIndicies() {
-	  return this.getEmptyGameboardIndices(true);
+	  return cellIndices(TicTacToeState.emptyMask(gameBoard) & TicTacToeRules.CORNERS_AND_CENTER);
   }
   
   public String gameStatusForState(TicTacToeState state) {
-	  TicTacToeState curState = currentObservationState.copy();
-	  setState(state);
-	  String status = gameStatus;
-	  setState(curState);
-	  
-	  return status;
+	  return TicTacToeRules.gameStatus(state.getBoard());
   }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.singleagent.SADomain;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trains a TabularQLearning agent on all cores with a ParallelEpisodeRunner, first against
+ * an "O" environment player and then against an "X" one, as TicTacToeQPlaying does.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class TicTacToeParallelQLearning {
+  public static void main(String[] args) {
+    TicTacToeWorld ticTacToeWorld = new TicTacToeWorld();
+    SADomain domain = ticTacToeWorld.generateDomain();
+    AtomicQTable qTable = new AtomicQTable(0.0);
+    // Resume from the last checkpoint if there is one, and snapshot the table as it trains
+    String checkpointPath = "output/qtable.bin";
+    if (Files.exists(Paths.get(checkpointPath))) {
+      QTableCheckpoint.load(checkpointPath, qTable);
+    }
+    QTableCheckpoint checkpoint = new QTableCheckpoint(qTable, checkpointPath);
+    checkpoint.startPeriodicSnapshots(5, TimeUnit.SECONDS);
+
+    ParallelEpisodeRunner runner = new ParallelEpisodeRunner(domain, 0.90, qTable, 1.0, TicTacToeEnv::new);
+
+    // Keep one in every thousand episodes for later review
+    EpisodeRecorder recorder = new EpisodeRecorder("output/", 1000, 8192, 10000);
+    runner.setEpisodeRecorder(recorder);
+
+    // Keep every episode in compact binary form, see BinaryEpisodeLogReader
+    BinaryEpisodeLog episodeLog = new BinaryEpisodeLog("output/episodes.bin");
+    runner.setEpisodeLog(episodeLog);
+
+    // Live throughput and convergence, over JMX and in output/metrics.log
+    TrainingMetrics metrics = new TrainingMetrics("parallel", "output/metrics.log");
+    metrics.setStateCounter(() -> TrainingMetrics.stateCount(qTable));
+    for (TicTacToeEnv env : runner.getEnvironments()) {
+      metrics.attach(env);
+    }
+    metrics.startReporting(5, TimeUnit.SECONDS);
+
+    int numEpisodes = 1000000;
+    long startTime = System.nanoTime();
+
+    for (TicTacToeEnv env : runner.getEnvironments()) {
+      env.setEnvPlayerMark(TicTacToeState.O_MARK);
+    }
+    runner.runEpisodes(numEpisodes / 2);
+
+    for (TicTacToeEnv env : runner.getEnvironments()) {
+      env.setEnvPlayerMark(TicTacToeState.X_MARK);
+    }
+    runner.runEpisodes(numEpisodes / 2);
+
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    runner.shutdown();
+    recorder.close();
+    episodeLog.close();
+    checkpoint.close();
+    metrics.close();
+
+    System.out.println(runner.getEpisodeCount() + " episodes, " + runner.getStepCount() + " steps on " +
+        runner.getNumWorkers() + " workers in " + seconds + " s");
+    System.out.println((long)(runner.getEpisodeCount() / seconds) + " episodes/s");
+    System.out.println(checkpoint.getSnapshotCount() + " Q-table snapshots written to " + checkpointPath);
+    System.out.println(recorder.getWrittenCount() + " episodes recorded, " + recorder.getDroppedCount() + " dropped");
+  }
+}
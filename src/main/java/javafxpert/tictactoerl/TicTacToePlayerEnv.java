@@ -15,9 +15,7 @@
  */
 package javafxpert.tictactoerl;
 
-import burlap.behavior.policy.EpsilonGreedy;
 import burlap.behavior.policy.Policy;
-import burlap.behavior.policy.support.ActionProb;
 import burlap.behavior.singleagent.learning.tdmethods.QLearning;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
@@ -39,10 +37,10 @@ public class TicTacToePlayerEnv implements Environment, EnvironmentServerInterfa
   private static int MOVE_REWARD = -1;
 
   /**
-   * String representation of cells on the game board.
-   * For example: "XOIIXOXIO"
+   * Packed game board, X occupancy in the low nine bits and O occupancy in the next nine.
+   * See TicTacToeState
    */
-  private StringBuffer gameBoard;
+  private int gameBoard;
 
   /**
    * Game status, specifically, whether the game is in-progress, or if X won,
@@ -67,12 +65,16 @@ public class TicTacToePlayerEnv implements Environment, EnvironmentServerInterfa
 
   protected List<EnvironmentObserver> observers = new LinkedList<EnvironmentObserver>();
 
-  EpsilonGreedy epsilonGreedyPolicy;
+  /**
+   * Policy that the player embedded in the environment plays, for example an EpsilonGreedy
+   * policy of a trained agent, or a CompiledPolicy
+   */
+  Policy playerPolicy;
 
   MoveActionType moveActionType;
 
-  public TicTacToePlayerEnv(EpsilonGreedy epsilonGreedyPolicy) {
-    this.epsilonGreedyPolicy = epsilonGreedyPolicy;
+  public TicTacToePlayerEnv(Policy playerPolicy) {
+    this.playerPolicy = playerPolicy;
 
     resetEnvironment();
   }
@@ -110,22 +112,26 @@ public class TicTacToePlayerEnv implements Environment, EnvironmentServerInterfa
   public EnvironmentOutcome executeAction(Action action) {
     MoveAction humanAction = (MoveAction)action;
 
-    TicTacToeState priorState = new TicTacToeState(gameBoard.toString(), gameStatus);
+    TicTacToeState priorState = new TicTacToeState(gameBoard);
+
+    for (EnvironmentObserver observer : observers) {
+      observer.observeEnvironmentActionInitiation(priorState, action);
+    }
 
     // actionId is the same as the cell number (0 - 8) of the move
     int cellNum = humanAction.getActionId();
 
     if (cellNum < 0 || cellNum >= TicTacToeState.NUM_CELLS ||
-        (gameBoard.charAt(cellNum) != TicTacToeState.EMPTY)) {
+        (cellAt(cellNum) != TicTacToeState.EMPTY)) {
 
       // Illegal move attempted so don't change
       System.out.println("Illegal move attempted to cell " + cellNum);
     }
     else {
-      gameBoard.setCharAt(cellNum, TicTacToeState.O_MARK);
+      playCell(cellNum, TicTacToeState.O_MARK);
     }
 
-    gameStatus = evalGameStatus();
+    gameStatus = TicTacToeRules.gameStatus(gameBoard);
     if (gameStatus.equals(TicTacToeState.GAME_STATUS_X_WON)) {
       reward = WIN_REWARD;
       terminated = true;
@@ -144,28 +150,22 @@ public class TicTacToePlayerEnv implements Environment, EnvironmentServerInterfa
       reward = 0;
       terminated = false;
 
-      priorState.set(TicTacToeState.VAR_GAME_BOARD, gameBoard.toString());
-      priorState.set(TicTacToeState.VAR_GAME_STATUS, gameStatus);
+      priorState = new TicTacToeState(gameBoard);
 
       // Play according the policy passed in to this environment
-
-      // Get the probability distribution of all actions from this state
-      List<ActionProb> actionProbs = epsilonGreedyPolicy.policyDistribution(priorState);
-      System.out.println("actionProbs: " + actionProbs);
-
-      MoveAction playerAction = (MoveAction)epsilonGreedyPolicy.action(priorState);
+      MoveAction playerAction = (MoveAction)playerPolicy.action(priorState);
       System.out.println("playerAction.getActionId(): " + (playerAction.getActionId()));
       int proposedCellIndex = playerAction.getActionId();
 
-      if (gameBoard.charAt(proposedCellIndex) == TicTacToeState.EMPTY) {
-        gameBoard.setCharAt(proposedCellIndex, TicTacToeState.X_MARK);
+      if (cellAt(proposedCellIndex) == TicTacToeState.EMPTY) {
+        playCell(proposedCellIndex, TicTacToeState.X_MARK);
       }
       else {
         System.out.println("Invalid move by player to cell: " + proposedCellIndex);
       }
 
 
-      gameStatus = evalGameStatus();  // Evaluate game status after O has responded, and update terminated state
+      gameStatus = TicTacToeRules.gameStatus(gameBoard);  // Evaluate game status after O has responded, and update terminated state
       if (gameStatus.equals(TicTacToeState.GAME_STATUS_O_WON)) {
         reward = 0;
         terminated = true;
@@ -177,13 +177,17 @@ public class TicTacToePlayerEnv implements Environment, EnvironmentServerInterfa
       }
     }
 
-    TicTacToeState newState = new TicTacToeState(gameBoard.toString(), gameStatus);
+    TicTacToeState newState = new TicTacToeState(gameBoard);
 
     currentObservationState = newState.copy();
 
     EnvironmentOutcome environmentOutcome =
         new EnvironmentOutcome(priorState, action, newState, reward, terminated);
 
+    for (EnvironmentObserver observer : observers) {
+      observer.observeEnvironmentInteraction(environmentOutcome);
+    }
+
     return environmentOutcome;
   }
 
@@ -199,69 +203,36 @@ public class TicTacToePlayerEnv implements Environment, EnvironmentServerInterfa
 
   @Override
   public void resetEnvironment() {
-    gameBoard = new StringBuffer(TicTacToeState.ONE_X_BOARD);
+    gameBoard = TicTacToeState.packBoard(TicTacToeState.ONE_X_BOARD);
     gameStatus = TicTacToeState.GAME_STATUS_IN_PROGRESS;
 
-    currentObservationState = new TicTacToeState(gameBoard.toString(), gameStatus);
+    currentObservationState = new TicTacToeState(gameBoard);
 
     terminated = false;
+
+    for (EnvironmentObserver observer : observers) {
+      observer.observeEnvironmentReset(this);
+    }
   }
 
   public EnvironmentOutcome executeActionWithGameBoard(MoveAction moveAction, String gameBoardStr) {
-    this.gameBoard = new StringBuffer(gameBoardStr);
+    this.gameBoard = TicTacToeState.packBoard(gameBoardStr);
     this.gameStatus = TicTacToeState.GAME_STATUS_IN_PROGRESS;
     return executeAction(moveAction);
   }
 
   /**
-   * Evaluate the status of the game (in-progress, or who won)
-   *
-   * @return Indicator of in-progress, or who won
+   * Mark (X, O or EMPTY) in a cell of the game board
    */
-  private String evalGameStatus() {
-    // Start with the assumption that all cells are occupied but nobody won
-    String gameStatus = TicTacToeState.GAME_STATUS_CATS_GAME;
-
-    // Check if this game is still in progress
-    for (int idx = 0; idx < TicTacToeState.NUM_CELLS; idx++) {
-      if (gameBoard.charAt(idx) ==  TicTacToeState.EMPTY) {
-        gameStatus = TicTacToeState.GAME_STATUS_IN_PROGRESS;
-        break;
-      }
-    }
-
-    // Check if X won
-    if ((gameBoard.charAt(0) == TicTacToeState.X_MARK && gameBoard.charAt(1) == TicTacToeState.X_MARK && gameBoard.charAt(2) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(3) == TicTacToeState.X_MARK && gameBoard.charAt(4) == TicTacToeState.X_MARK && gameBoard.charAt(5) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(6) == TicTacToeState.X_MARK && gameBoard.charAt(7) == TicTacToeState.X_MARK && gameBoard.charAt(8) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(0) == TicTacToeState.X_MARK && gameBoard.charAt(3) == TicTacToeState.X_MARK && gameBoard.charAt(6) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(1) == TicTacToeState.X_MARK && gameBoard.charAt(4) == TicTacToeState.X_MARK && gameBoard.charAt(7) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(2) == TicTacToeState.X_MARK && gameBoard.charAt(5) == TicTacToeState.X_MARK && gameBoard.charAt(8) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(0) == TicTacToeState.X_MARK && gameBoard.charAt(4) == TicTacToeState.X_MARK && gameBoard.charAt(8) == TicTacToeState.X_MARK) ||
-        (gameBoard.charAt(2) == TicTacToeState.X_MARK && gameBoard.charAt(4) == TicTacToeState.X_MARK && gameBoard.charAt(6) == TicTacToeState.X_MARK)) {
-      gameStatus = TicTacToeState.GAME_STATUS_X_WON;
-      //System.out.println("X won");
-      //System.out.print("X");
-    }
-    else if ((gameBoard.charAt(0) == TicTacToeState.O_MARK && gameBoard.charAt(1) == TicTacToeState.O_MARK && gameBoard.charAt(2) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(3) == TicTacToeState.O_MARK && gameBoard.charAt(4) == TicTacToeState.O_MARK && gameBoard.charAt(5) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(6) == TicTacToeState.O_MARK && gameBoard.charAt(7) == TicTacToeState.O_MARK && gameBoard.charAt(8) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(0) == TicTacToeState.O_MARK && gameBoard.charAt(3) == TicTacToeState.O_MARK && gameBoard.charAt(6) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(1) == TicTacToeState.O_MARK && gameBoard.charAt(4) == TicTacToeState.O_MARK && gameBoard.charAt(7) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(2) == TicTacToeState.O_MARK && gameBoard.charAt(5) == TicTacToeState.O_MARK && gameBoard.charAt(8) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(0) == TicTacToeState.O_MARK && gameBoard.charAt(4) == TicTacToeState.O_MARK && gameBoard.charAt(8) == TicTacToeState.O_MARK) ||
-        (gameBoard.charAt(2) == TicTacToeState.O_MARK && gameBoard.charAt(4) == TicTacToeState.O_MARK && gameBoard.charAt(6) == TicTacToeState.O_MARK)) {
-      gameStatus = TicTacToeState.GAME_STATUS_O_WON;
-      //System.out.println("O won");
-      //System.out.print("o");
-    }
-
-    if (gameStatus.equals(TicTacToeState.GAME_STATUS_CATS_GAME)) {
-      //System.out.println("Cat's game");
-      //System.out.print(".");
-    }
-    return gameStatus;
+  private char cellAt(int cell) {
+    return TicTacToeState.markAt(gameBoard, cell);
   }
 
+  /**
+   * Place a mark in an empty cell of the game board
+   */
+  private void playCell(int cell, char mark) {
+    gameBoard = TicTacToeState.withMark(gameBoard, cell, mark);
+  }
 
 }
@@ -20,8 +20,6 @@ import burlap.behavior.singleagent.auxiliary.EpisodeSequenceVisualizer;
 import burlap.behavior.singleagent.learning.LearningAgent;
 import burlap.behavior.singleagent.learning.tdmethods.QLearning;
 import burlap.mdp.singleagent.SADomain;
-import burlap.statehashing.HashableStateFactory;
-import burlap.statehashing.simple.SimpleHashableStateFactory;
 import burlap.visualizer.Visualizer;
 
 /**
@@ -31,27 +29,35 @@ public class TicTacToeQLearning {
   public static void main(String[] args) {
     TicTacToeWorld ticTacToeWorld = new TicTacToeWorld();
     SADomain domain = ticTacToeWorld.generateDomain();
-    HashableStateFactory hashingFactory = new SimpleHashableStateFactory();
-    LearningAgent agent = new QLearning(domain, 0.90, hashingFactory, 0.0, 1.0);
+    LearningAgent agent = new QLearning(domain, 0.90, new IndexedHashableStateFactory(), 0.0, 1.0);
     TicTacToeEnv env = new TicTacToeEnv();
 
+    // Watch training live when run with -Dlive=true, repainting at most 30 times a second
+    LiveTrainingVisualizer liveVisualizer = null;
+    if (Boolean.getBoolean("live")) {
+      liveVisualizer = new LiveTrainingVisualizer(ticTacToeWorld.getVisualizer(), 30);
+      liveVisualizer.initGUI();
+      env.addObservers(liveVisualizer);
+    }
+
     //run learning for 5000 episodes
     String outputPath = "output/";
+    EpisodeRecorder recorder = new EpisodeRecorder(outputPath);
     for(int i = 0; i < 5000; i++){
       Episode e = agent.runLearningEpisode(env);
 
-      e.write(outputPath + "ql_" + i);
+      recorder.record(e);
 
       //reset environment for next learning episode
       env.resetEnvironment();
     }
 
-//TODO: Attempt to get this visualization working
-//    VisualActionObserver observer = new VisualActionObserver(ticTacToeWorld.getVisualizer());
-//		observer.initGUI();
-//		env.addObservers(observer);
+    if (liveVisualizer != null) {
+      liveVisualizer.close();
+    }
+    recorder.close();
 
     Visualizer v = ticTacToeWorld.getVisualizer();
-    new EpisodeSequenceVisualizer(v, domain, outputPath);
+    new EpisodeSequenceVisualizer(v, domain, EpisodeRecorder.readEpisodes(outputPath));
   }
 }
@@ -19,15 +19,16 @@ import burlap.behavior.policy.EpsilonGreedy;
 import burlap.behavior.singleagent.Episode;
 import burlap.behavior.singleagent.auxiliary.EpisodeSequenceVisualizer;
 import burlap.behavior.singleagent.learning.LearningAgent;
-import burlap.behavior.singleagent.learning.tdmethods.QLearning;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.action.SimpleAction;
 import burlap.mdp.singleagent.SADomain;
 import burlap.mdp.singleagent.environment.EnvironmentOutcome;
-import burlap.statehashing.HashableStateFactory;
-import burlap.statehashing.simple.SimpleHashableStateFactory;
 import burlap.visualizer.Visualizer;
 
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author James L. Weaver (Twitter: @JavaFXpert)
  */
@@ -35,58 +36,96 @@ public class TicTacToeQPlaying {
   public static void main(String[] args) {
     TicTacToeWorld ticTacToeWorld = new TicTacToeWorld();
     SADomain domain = ticTacToeWorld.generateDomain();
-    HashableStateFactory hashingFactory = new SimpleHashableStateFactory();
-    QLearning qLearningAgent = new QLearning(domain, 0.90, hashingFactory, 0.0, 1.0);
+    // An AtomicQTable, so that the checkpoint thread can snapshot it while the agent learns
+    TabularQLearning qLearningAgent = new TabularQLearning(domain, 0.90, new AtomicQTable(0.0), 1.0);
 
     EpsilonGreedy greedyPolicy = new EpsilonGreedy(qLearningAgent, 0.5);
 
-    TicTacToeEnv env = new TicTacToeEnv();
-
     String outputPath = "output/";
+    String checkpointPath = outputPath + "qtable.bin";
 
-    env.setEnvPlayerMark(TicTacToeState.O_MARK);
-    for(int i = 0; i < 4000; i++){
-      Episode e = qLearningAgent.runLearningEpisode(env);
+    // Start from the last checkpoint if there is one, and only train when there isn't,
+    // or when "train" is given as an argument to resume training from it
+    boolean checkpointExists = Files.exists(Paths.get(checkpointPath));
+    if (checkpointExists) {
+      QTableCheckpoint.load(checkpointPath, qLearningAgent.getQTable());
+    }
 
-      e.write(outputPath + "ql_" + i);
+    if (!checkpointExists || (args.length > 0 && args[0].equals("train"))) {
+      TicTacToeEnv env = new TicTacToeEnv();
 
-      //reset environment for next learning episode
-      env.resetEnvironment();
-    }
+      EpisodeRecorder recorder = new EpisodeRecorder(outputPath);
 
-    System.out.println();
-    System.out.println();
+      // Watch training live when run with -Dlive=true, repainting at most 30 times a second
+      LiveTrainingVisualizer liveVisualizer = null;
+      if (Boolean.getBoolean("live")) {
+        liveVisualizer = new LiveTrainingVisualizer(ticTacToeWorld.getVisualizer(), 30);
+        liveVisualizer.initGUI();
+        env.addObservers(liveVisualizer);
+      }
 
-    env.setEnvPlayerMark(TicTacToeState.X_MARK);
-    for(int i = 4000; i < 8000; i++){
-      Episode e = qLearningAgent.runLearningEpisode(env);
+      QTableCheckpoint checkpoint = new QTableCheckpoint(qLearningAgent.getQTable(), checkpointPath);
+      checkpoint.startPeriodicSnapshots(10, TimeUnit.SECONDS);
 
-      e.write(outputPath + "ql_" + i);
+      env.setEnvPlayerMark(TicTacToeState.O_MARK);
+      for(int i = 0; i < 4000; i++){
+        Episode e = qLearningAgent.runLearningEpisode(env);
 
-      //reset environment for next learning episode
-      env.resetEnvironment();
-    }
+        recorder.record(e);
+
+        //reset environment for next learning episode
+        env.resetEnvironment();
+      }
 
-//TODO: Attempt to get this visualization working
-//    VisualActionObserver observer = new VisualActionObserver(ticTacToeWorld.getVisualizer());
-//		observer.initGUI();
-//		env.addObservers(observer);
+      System.out.println();
+      System.out.println();
 
-    Visualizer v = ticTacToeWorld.getVisualizer();
-    new EpisodeSequenceVisualizer(v, domain, outputPath);
+      env.setEnvPlayerMark(TicTacToeState.X_MARK);
+      for(int i = 4000; i < 8000; i++){
+        Episode e = qLearningAgent.runLearningEpisode(env);
 
-    // Use the trained agent to play tic-tac-toe in a new environment
-    EpsilonGreedy nonGreedyPolicyPlayer = new EpsilonGreedy(qLearningAgent, 0.0);
-    TicTacToePlayerEnv ticTacToePlayerEnv = new TicTacToePlayerEnv(nonGreedyPolicyPlayer);
+        recorder.record(e);
+
+        //reset environment for next learning episode
+        env.resetEnvironment();
+      }
+
+      if (liveVisualizer != null) {
+        liveVisualizer.close();
+      }
+      recorder.close();
+      checkpoint.close();
+
+      Visualizer v = ticTacToeWorld.getVisualizer();
+      new EpisodeSequenceVisualizer(v, domain, EpisodeRecorder.readEpisodes(outputPath));
+    }
+
+    // Use the trained agent to play tic-tac-toe in a new environment, through its greedy policy
+    // compiled into a table of best moves.  The compiled policy is reused while the checkpoint,
+    // which holds the agent's Q-values whether they were just trained or loaded, is unchanged.
+    long checkpointHash = QTableCheckpoint.readContentHash(checkpointPath);
+    String policyPath = outputPath + "policy.bin";
+    CompiledPolicy compiledPolicy = null;
+    if (Files.exists(Paths.get(policyPath))) {
+      compiledPolicy = CompiledPolicy.load(policyPath);
+      if (!compiledPolicy.isCompiledFrom(checkpointHash)) {
+        compiledPolicy = null;
+      }
+    }
+    if (compiledPolicy == null) {
+      compiledPolicy = CompiledPolicy.compile(qLearningAgent, checkpointHash);
+      compiledPolicy.save(policyPath);
+    }
+    TicTacToePlayerEnv ticTacToePlayerEnv = new TicTacToePlayerEnv(compiledPolicy);
     //TicTacToePlayerEnv ticTacToePlayerEnv = new TicTacToePlayerEnv(greedyPolicy);
 
     System.out.println();
-    Action humanAction = new MoveAction(4);
+    Action humanAction = MoveAction.of(4);
     EnvironmentOutcome environmentOutcome = ticTacToePlayerEnv.executeAction(humanAction);
     System.out.println("environmentOutcome.op: " + environmentOutcome.op);
 
     System.out.println();
-    MoveAction humanAction2 = new MoveAction(5);
+    MoveAction humanAction2 = MoveAction.of(5);
     EnvironmentOutcome environmentOutcome2 = ticTacToePlayerEnv.executeActionWithGameBoard(humanAction2, "OIIXXIXIO");
     System.out.println("environmentOutcome2.op: " + environmentOutcome2.op);
 
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.singleagent.SADomain;
+
+/**
+ * Compares how quickly TabularQLearning learns to play "X" against the default "O" player
+ * with no experience replay, uniform replay, and prioritized replay.  After each stage of
+ * training the greedy policy of each learner plays evaluation games, and the share of them
+ * that it doesn't lose is printed.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class TicTacToeReplayQLearning {
+  private static final int[] TRAINING_EPISODES = {100, 200, 500, 1000, 2000};
+
+  private static final int EVALUATION_EPISODES = 10000;
+
+  public static void main(String[] args) {
+    SADomain domain = new TicTacToeWorld().generateDomain();
+
+    TabularQLearning online = new TabularQLearning(domain, 0.90, 0.0, 0.1);
+    TabularQLearning uniform = new TabularQLearning(domain, 0.90, 0.0, 0.1);
+    uniform.setExperienceReplay(new ExperienceReplay(1 << 20, 32));
+    TabularQLearning prioritized = new TabularQLearning(domain, 0.90, 0.0, 0.1);
+    prioritized.setExperienceReplay(new ExperienceReplay(1 << 20, 32, 0.6, 0.4));
+
+    TabularQLearning[] learners = {online, uniform, prioritized};
+    String[] names = {"online", "uniform replay", "prioritized replay"};
+    TicTacToeEnv env = new TicTacToeEnv();
+
+    int trained = 0;
+    for (int episodes : TRAINING_EPISODES) {
+      for (TabularQLearning learner : learners) {
+        for (int i = trained; i < episodes; i++) {
+          learner.runLearningEpisode(env);
+          env.resetEnvironment();
+        }
+      }
+      trained = episodes;
+
+      StringBuilder line = new StringBuilder(episodes + " episodes:");
+      for (int i = 0; i < learners.length; i++) {
+        line.append(String.format("  %s %.3f", names[i], notLosingRate(learners[i], env)));
+      }
+      System.out.println(line);
+    }
+  }
+
+  /**
+   * Share of evaluation games that the learner's greedy policy wins or draws
+   */
+  private static double notLosingRate(TabularQLearning learner, TicTacToeEnv env) {
+    FrozenQTableOpponent greedy = new FrozenQTableOpponent(learner.getQTable());
+    int notLost = 0;
+    for (int i = 0; i < EVALUATION_EPISODES; i++) {
+      env.resetEnvironment();
+      while (!env.isInTerminalState()) {
+        int board = ((TicTacToeState)env.currentObservation()).getBoard();
+        env.executeAction(MoveAction.of(greedy.bestCell(board)));
+      }
+      if (env.lastReward() != TicTacToeEnv.LOSE_REWARD) {
+        notLost++;
+      }
+    }
+    env.resetEnvironment();
+    return (double)notLost / EVALUATION_EPISODES;
+  }
+}
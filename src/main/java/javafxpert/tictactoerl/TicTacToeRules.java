@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+/**
+ * Rules of tic-tac-toe shared by the environments.  The status of every one of the
+ * 3^9 board encodings is computed once at class-load time, so evaluating a board is
+ * a pair of table lookups and an array index.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public final class TicTacToeRules {
+  public static final int STATUS_IN_PROGRESS = 0;
+  public static final int STATUS_X_WON = 1;
+  public static final int STATUS_O_WON = 2;
+  public static final int STATUS_CATS_GAME = 3;
+
+  /**
+   * Number of base-3 board encodings (3^9)
+   */
+  public static final int NUM_ENCODINGS = 19683;
+
+  /**
+   * Occupancy masks of the eight three-in-a-row lines: rows, columns, then diagonals
+   */
+  static final int[] WIN_LINES = {0x007, 0x038, 0x1C0, 0x049, 0x092, 0x124, 0x111, 0x054};
+
+  /**
+   * Mask of the four corner cells and the center cell
+   */
+  public static final int CORNERS_AND_CENTER = 0x155;
+
+  /**
+   * Game status Strings indexed by status code
+   */
+  private static final String[] STATUS_STRINGS = {
+      TicTacToeState.GAME_STATUS_IN_PROGRESS,
+      TicTacToeState.GAME_STATUS_X_WON,
+      TicTacToeState.GAME_STATUS_O_WON,
+      TicTacToeState.GAME_STATUS_CATS_GAME
+  };
+
+  /**
+   * Base-3 weight of each 9-bit occupancy mask, i.e. the sum of 3^cell over its cells
+   */
+  private static final int[] TERNARY = new int[1 << 9];
+
+  /**
+   * Status code of every base-3 board encoding
+   */
+  private static final byte[] STATUS = new byte[NUM_ENCODINGS];
+
+  static {
+    for (int mask = 0; mask < TERNARY.length; mask++) {
+      int weight = 0;
+      for (int cell = 8; cell >= 0; cell--) {
+        weight = weight * 3 + ((mask >>> cell) & 1);
+      }
+      TERNARY[mask] = weight;
+    }
+
+    for (int code = 0; code < NUM_ENCODINGS; code++) {
+      STATUS[code] = (byte)evalStatus(decode(code));
+    }
+  }
+
+  private TicTacToeRules() {
+  }
+
+  /**
+   * Base-3 encoding of a packed board, where each cell contributes 0 (empty),
+   * 1 (X) or 2 (O) times 3^cell
+   */
+  public static int encode(int board) {
+    return TERNARY[board & TicTacToeState.CELLS_MASK] +
+        2 * TERNARY[(board >>> TicTacToeState.O_SHIFT) & TicTacToeState.CELLS_MASK];
+  }
+
+  /**
+   * Packed board of a base-3 encoding
+   */
+  public static int decode(int code) {
+    int board = 0;
+    for (int cell = 0; cell < TicTacToeState.NUM_CELLS; cell++) {
+      int digit = code % 3;
+      code /= 3;
+      if (digit == 1) {
+        board |= 1 << cell;
+      }
+      else if (digit == 2) {
+        board |= 1 << (cell + TicTacToeState.O_SHIFT);
+      }
+    }
+    return board;
+  }
+
+  /**
+   * Status code (STATUS_IN_PROGRESS, STATUS_X_WON, STATUS_O_WON or STATUS_CATS_GAME) of a packed board
+   */
+  public static int status(int board) {
+    return STATUS[encode(board)];
+  }
+
+  /**
+   * Game status String (see TicTacToeState.GAME_STATUS_*) of a packed board
+   */
+  public static String gameStatus(int board) {
+    return STATUS_STRINGS[STATUS[encode(board)]];
+  }
+
+  /**
+   * Game status String (see TicTacToeState.GAME_STATUS_*) of a status code
+   */
+  public static String statusString(int status) {
+    return STATUS_STRINGS[status];
+  }
+
+  /**
+   * Empty cell that would complete a three-in-a-row for the given mark, checking rows,
+   * then columns, then diagonals
+   *
+   * @param markCells Occupancy mask of the mark
+   * @param emptyCells Mask of the empty cells
+   * @return Zero-based index of the cell, or -1 if no cells apply
+   */
+  public static int lineCompletionCell(int markCells, int emptyCells) {
+    for (int line : WIN_LINES) {
+      int open = emptyCells & line;
+      if (open != 0 && Integer.bitCount(markCells & line) == 2) {
+        return Integer.numberOfTrailingZeros(open);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Index of the n-th (zero based) cell of a cell mask
+   */
+  public static int nthCell(int cells, int n) {
+    for (int i = 0; i < n; i++) {
+      cells &= cells - 1;
+    }
+    return Integer.numberOfTrailingZeros(cells);
+  }
+
+  /**
+   * Evaluate the status of a packed board by testing every line.  X is checked first,
+   * as in the original environments.
+   */
+  private static int evalStatus(int board) {
+    int xCells = board & TicTacToeState.CELLS_MASK;
+    int oCells = (board >>> TicTacToeState.O_SHIFT) & TicTacToeState.CELLS_MASK;
+    for (int line : WIN_LINES) {
+      if ((xCells & line) == line) {
+        return STATUS_X_WON;
+      }
+    }
+    for (int line : WIN_LINES) {
+      if ((oCells & line) == line) {
+        return STATUS_O_WON;
+      }
+    }
+    return (xCells | oCells) == TicTacToeState.CELLS_MASK ? STATUS_CATS_GAME : STATUS_IN_PROGRESS;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.singleagent.SADomain;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trains one shared Q-table by self-play on all cores.  Each worker of a ParallelEpisodeRunner
+ * plays X and O in alternate episodes against a SelfPlayOpponent, a snapshot of the same table
+ * that is refreshed in the background.  The greedy policy of the table is then played, as
+ * each mark, against the perfect and the random built-in players.
+ *
+ * Arguments: number of episodes (default 1000000), and optionally a seed for the workers'
+ * random streams (see ParallelEpisodeRunner.setSeed).
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class TicTacToeSelfPlay {
+  public static void main(String[] args) {
+    int numEpisodes = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+    SADomain domain = new TicTacToeWorld().generateDomain();
+    AtomicQTable qTable = new AtomicQTable(0.0);
+    ParallelEpisodeRunner runner = new ParallelEpisodeRunner(domain, 0.90, qTable, 0.5, TicTacToeEnv::new);
+    if (args.length > 1) {
+      runner.setSeed(Long.parseLong(args[1]));
+    }
+    runner.setAlternateMarks(true);
+
+    SelfPlayOpponent opponent = new SelfPlayOpponent(qTable, 0.1);
+    for (TicTacToeEnv env : runner.getEnvironments()) {
+      env.setOpponentPolicy(opponent);
+    }
+    opponent.startRefreshing(100, TimeUnit.MILLISECONDS);
+
+    long startTime = System.nanoTime();
+    runner.runEpisodes(numEpisodes);
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    opponent.close();
+    runner.shutdown();
+
+    System.out.println(runner.getEpisodeCount() + " self-play episodes on " + runner.getNumWorkers() +
+        " workers in " + seconds + " s, " + (long)(runner.getEpisodeCount() / seconds) + " episodes/s, " +
+        opponent.getRefreshCount() + " snapshot refreshes");
+
+    FrozenQTableOpponent greedy = new FrozenQTableOpponent(qTable);
+    for (int policy : new int[] {1, 5}) {
+      for (char envPlayerMark : new char[] {TicTacToeState.O_MARK, TicTacToeState.X_MARK}) {
+        TicTacToeEnv env = new TicTacToeEnv();
+        env.setEnvPlayerMark(envPlayerMark);
+        env.setAgentPolicy(policy);
+        int[] outcomes = new int[3];
+        for (int game = 0; game < 10000; game++) {
+          while (!env.isInTerminalState()) {
+            int board = ((TicTacToeState)env.currentObservation()).getBoard();
+            env.executeAction(MoveAction.of(greedy.bestCell(board)));
+          }
+          outcomes[env.lastReward() == TicTacToeEnv.WIN_REWARD ? 0 : env.lastReward() == TicTacToeEnv.LOSE_REWARD ? 1 : 2]++;
+          env.resetEnvironment();
+        }
+        System.out.println(String.format("%c vs policy %d: won %d, lost %d, drew %d of 10000",
+            env.getAgentPlayerMark(), policy, outcomes[0], outcomes[1], outcomes[2]));
+      }
+    }
+  }
+}
@@ -16,18 +16,26 @@
 package javafxpert.tictactoerl;
 
 import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.State;
 import burlap.mdp.core.state.StateUtilities;
 import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
+import burlap.statehashing.HashableState;
 
 import java.util.Arrays;
 import java.util.List;
 
 /**
+ * Tic-tac-toe state packed into a single int.  Bits 0-8 hold the cells occupied by X,
+ * and bits 9-17 hold the cells occupied by O.  The game status is derived from the board.
+ *
+ * The state is its own HashableState, so it can be used with a ReflectiveHashableStateFactory
+ * to hash and compare boards as ints.
+ *
  * @author James L. Weaver (Twitter: @JavaFXpert)
  */
 @DeepCopyState
-public class TicTacToeState implements MutableState {
+public class TicTacToeState implements MutableState, HashableState {
   /**
    * Constant for number of cells on a Tac-Tac-Toe board
    */
@@ -50,16 +58,20 @@ public class TicTacToeState implements MutableState {
   public static String ONE_X_BOARD = "XIIIIIIII"; //TODO: Put back
 
   /**
-   * String representation of cells on the game board.
-   * For example: "XOIIXOXIO"
+   * Mask of the nine cell bits for one mark
+   */
+  public static final int CELLS_MASK = 0x1FF;
+
+  /**
+   * Bit offset of the O occupancy mask within a packed board
    */
-  public String gameBoard = EMPTY_BOARD;
+  public static final int O_SHIFT = 9;
 
   /**
-   * Game status, specifically, whether the game is in-progress, or if X won,
-   * or if O won, or if it is cat's game (nobody won).
+   * Packed game board, X occupancy in the low nine bits and O occupancy in the next nine.
+   * For example, "XOIIXOXIO" packs to X cells {0, 4, 6} and O cells {1, 5, 8}
    */
-  public String gameStatus = GAME_STATUS_IN_PROGRESS;
+  private int board;
 
   private final static List<Object> keys =
       Arrays.asList(VAR_GAME_BOARD, VAR_GAME_STATUS);
@@ -67,18 +79,53 @@ public class TicTacToeState implements MutableState {
   public TicTacToeState() {
   }
 
+  public TicTacToeState(int board) {
+    this.board = board;
+  }
+
+  /**
+   * Creates a state from its String representation.  The game status is derived from the
+   * board, so the gameStatus argument is only kept for compatibility.
+   */
   public TicTacToeState(String gameBoard, String gameStatus) {
-    this.gameBoard = gameBoard;
-    this.gameStatus = gameStatus;
+    this.board = packBoard(gameBoard);
+  }
+
+  public int getBoard() {
+    return board;
+  }
+
+  public void setBoard(int board) {
+    this.board = board;
+  }
+
+  public int xMask() {
+    return board & CELLS_MASK;
+  }
+
+  public int oMask() {
+    return (board >>> O_SHIFT) & CELLS_MASK;
+  }
+
+  public int emptyMask() {
+    return emptyMask(board);
+  }
+
+  public char markAt(int cell) {
+    return markAt(board, cell);
+  }
+
+  public String getGameStatus() {
+    return statusOf(board);
   }
 
   @Override
   public MutableState set(Object variableKey, Object value) {
     if(variableKey.equals(VAR_GAME_BOARD)){
-      this.gameBoard = (String)value;
+      this.board = packBoard((String)value);
     }
     else if(variableKey.equals(VAR_GAME_STATUS)){
-      this.gameStatus = (String)value;
+      // Status is derived from the board, so there is nothing to store
     }
     else{
       throw new UnknownKeyException(variableKey);
@@ -94,21 +141,107 @@ public class TicTacToeState implements MutableState {
   @Override
   public Object get(Object variableKey) {
     if(variableKey.equals(VAR_GAME_BOARD)){
-      return this.gameBoard;
+      return unpackBoard(board);
     }
     else if(variableKey.equals(VAR_GAME_STATUS)){
-      return this.gameStatus;
+      return statusOf(board);
     }
     throw new UnknownKeyException(variableKey);
   }
 
   @Override
   public TicTacToeState copy() {
-    return new TicTacToeState(gameBoard, gameStatus);
+    return new TicTacToeState(board);
+  }
+
+  @Override
+  public State s() {
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if(this == o) return true;
+    if(o == null || getClass() != o.getClass()) return false;
+
+    TicTacToeState that = (TicTacToeState) o;
+
+    return board == that.board;
+  }
+
+  @Override
+  public int hashCode() {
+    return board;
   }
 
   @Override
   public String toString() {
     return StateUtilities.stateToString(this);
   }
+
+  /**
+   * Mark (X, O or EMPTY) in a cell of a packed board
+   */
+  public static char markAt(int board, int cell) {
+    if ((board & (1 << cell)) != 0) {
+      return X_MARK;
+    }
+    if ((board & (1 << (cell + O_SHIFT))) != 0) {
+      return O_MARK;
+    }
+    return EMPTY;
+  }
+
+  /**
+   * Packed board with the given mark placed in a cell, which is assumed to be empty
+   */
+  public static int withMark(int board, int cell, char mark) {
+    return board | (1 << (mark == X_MARK ? cell : cell + O_SHIFT));
+  }
+
+  /**
+   * Mask of the empty cells of a packed board
+   */
+  public static int emptyMask(int board) {
+    return ~(board | (board >>> O_SHIFT)) & CELLS_MASK;
+  }
+
+  /**
+   * Occupancy mask of a mark on a packed board
+   */
+  public static int markMask(int board, char mark) {
+    return mark == X_MARK ? board & CELLS_MASK : (board >>> O_SHIFT) & CELLS_MASK;
+  }
+
+  /**
+   * Evaluate the status of a packed board (in-progress, or who won)
+   */
+  public static String statusOf(int board) {
+    return TicTacToeRules.gameStatus(board);
+  }
+
+  /**
+   * Pack a String representation (for example "XOIIXOXIO") into a board
+   */
+  public static int packBoard(String gameBoard) {
+    int packed = 0;
+    for (int cell = 0; cell < NUM_CELLS; cell++) {
+      char mark = gameBoard.charAt(cell);
+      if (mark == X_MARK || mark == O_MARK) {
+        packed = withMark(packed, cell, mark);
+      }
+    }
+    return packed;
+  }
+
+  /**
+   * String representation (for example "XOIIXOXIO") of a packed board
+   */
+  public static String unpackBoard(int board) {
+    char[] cells = new char[NUM_CELLS];
+    for (int cell = 0; cell < NUM_CELLS; cell++) {
+      cells[cell] = markAt(board, cell);
+    }
+    return new String(cells);
+  }
 }
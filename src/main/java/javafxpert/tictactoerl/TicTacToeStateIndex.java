@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+/**
+ * Dense numbering of the 5,478 boards that can arise in a game of tic-tac-toe (X moving first,
+ * and no moves after a game ends).  A ranking table from base-3 board encoding to index is
+ * computed once at class-load time, so indexing a board is two table lookups, and the index can
+ * key dense arrays of per-position data.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public final class TicTacToeStateIndex {
+  /**
+   * Number of reachable boards
+   */
+  public static final int NUM_POSITIONS = 5478;
+
+  /**
+   * Index of each base-3 board encoding, or -1 for unreachable boards
+   */
+  private static final short[] INDEX = new short[TicTacToeRules.NUM_ENCODINGS];
+
+  /**
+   * Packed board of each index, in order of number of marks and then of encoding
+   */
+  private static final int[] BOARDS = new int[NUM_POSITIONS];
+
+  static {
+    boolean[] reachable = new boolean[TicTacToeRules.NUM_ENCODINGS];
+    markReachable(0, TicTacToeState.X_MARK, reachable);
+
+    int numPositions = 0;
+    for (int marks = 0; marks <= TicTacToeState.NUM_CELLS; marks++) {
+      for (int code = 0; code < TicTacToeRules.NUM_ENCODINGS; code++) {
+        int board = TicTacToeRules.decode(code);
+        if (reachable[code] && Integer.bitCount(board) == marks) {
+          BOARDS[numPositions] = board;
+          INDEX[code] = (short)numPositions;
+          numPositions++;
+        }
+        else if (!reachable[code]) {
+          INDEX[code] = -1;
+        }
+      }
+    }
+    if (numPositions != NUM_POSITIONS) {
+      throw new IllegalStateException("Found " + numPositions + " reachable boards");
+    }
+  }
+
+  private TicTacToeStateIndex() {
+  }
+
+  /**
+   * Index (0 to NUM_POSITIONS - 1) of a packed board, or -1 if it can't arise in a game
+   */
+  public static int index(int board) {
+    return INDEX[TicTacToeRules.encode(board)];
+  }
+
+  /**
+   * Packed board of an index
+   */
+  public static int board(int index) {
+    return BOARDS[index];
+  }
+
+  private static void markReachable(int board, char mark, boolean[] reachable) {
+    int code = TicTacToeRules.encode(board);
+    if (reachable[code]) {
+      return;
+    }
+    reachable[code] = true;
+    if (TicTacToeRules.status(board) != TicTacToeRules.STATUS_IN_PROGRESS) {
+      return;
+    }
+    char nextMark = mark == TicTacToeState.X_MARK ? TicTacToeState.O_MARK : TicTacToeState.X_MARK;
+    for (int empty = TicTacToeState.emptyMask(board); empty != 0; empty &= empty - 1) {
+      markReachable(TicTacToeState.withMark(board, Integer.numberOfTrailingZeros(empty), mark), nextMark, reachable);
+    }
+  }
+}
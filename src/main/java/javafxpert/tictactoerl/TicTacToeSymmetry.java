@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+/**
+ * The eight symmetries of the board (four rotations, and the four reflections) used to map
+ * a packed board to a canonical form.  A transform is identified by an int whose low three
+ * bits select the symmetry, and whose COLOR_SWAP bit indicates that X and O were exchanged.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public final class TicTacToeSymmetry {
+  public static final int NUM_SYMMETRIES = 8;
+
+  /**
+   * Transform bit indicating that X and O were exchanged before applying the symmetry
+   */
+  public static final int COLOR_SWAP = 8;
+
+  private static final int SYMMETRY_BITS = 7;
+
+  /**
+   * Cell that each cell is moved to, per symmetry.  Cells are numbered row * 3 + col.
+   */
+  private static final int[][] CELL_MAP = new int[NUM_SYMMETRIES][TicTacToeState.NUM_CELLS];
+
+  /**
+   * Cell that each cell is moved back from, per symmetry
+   */
+  private static final int[][] INVERSE_CELL_MAP = new int[NUM_SYMMETRIES][TicTacToeState.NUM_CELLS];
+
+  /**
+   * Image of each 9-bit occupancy mask, per symmetry
+   */
+  private static final int[][] MASK_MAP = new int[NUM_SYMMETRIES][1 << 9];
+
+  static {
+    for (int cell = 0; cell < TicTacToeState.NUM_CELLS; cell++) {
+      int row = cell / 3;
+      int col = cell % 3;
+      CELL_MAP[0][cell] = row * 3 + col;              // identity
+      CELL_MAP[1][cell] = col * 3 + (2 - row);        // rotate 90
+      CELL_MAP[2][cell] = (2 - row) * 3 + (2 - col);  // rotate 180
+      CELL_MAP[3][cell] = (2 - col) * 3 + row;        // rotate 270
+      CELL_MAP[4][cell] = row * 3 + (2 - col);        // mirror left-right
+      CELL_MAP[5][cell] = (2 - row) * 3 + col;        // mirror top-bottom
+      CELL_MAP[6][cell] = col * 3 + row;              // transpose
+      CELL_MAP[7][cell] = (2 - col) * 3 + (2 - row);  // anti-transpose
+    }
+
+    for (int sym = 0; sym < NUM_SYMMETRIES; sym++) {
+      for (int cell = 0; cell < TicTacToeState.NUM_CELLS; cell++) {
+        INVERSE_CELL_MAP[sym][CELL_MAP[sym][cell]] = cell;
+      }
+      for (int mask = 0; mask < MASK_MAP[sym].length; mask++) {
+        int image = 0;
+        for (int cell = 0; cell < TicTacToeState.NUM_CELLS; cell++) {
+          if ((mask & (1 << cell)) != 0) {
+            image |= 1 << CELL_MAP[sym][cell];
+          }
+        }
+        MASK_MAP[sym][mask] = image;
+      }
+    }
+  }
+
+  private TicTacToeSymmetry() {
+  }
+
+  /**
+   * Apply a transform to a packed board
+   */
+  public static int transform(int board, int transform) {
+    if ((transform & COLOR_SWAP) != 0) {
+      board = swapColors(board);
+    }
+    int[] maskMap = MASK_MAP[transform & SYMMETRY_BITS];
+    return maskMap[board & TicTacToeState.CELLS_MASK] |
+        (maskMap[(board >>> TicTacToeState.O_SHIFT) & TicTacToeState.CELLS_MASK] << TicTacToeState.O_SHIFT);
+  }
+
+  /**
+   * Transform that maps a packed board to its canonical form, which is the smallest
+   * packed board among its images
+   *
+   * @param swapColors Whether boards with O to move are first recolored so that X is to move
+   */
+  public static int canonicalTransform(int board, boolean swapColors) {
+    int colorBit = 0;
+    if (swapColors && isOToMove(board)) {
+      board = swapColors(board);
+      colorBit = COLOR_SWAP;
+    }
+
+    int xCells = board & TicTacToeState.CELLS_MASK;
+    int oCells = (board >>> TicTacToeState.O_SHIFT) & TicTacToeState.CELLS_MASK;
+    int bestSym = 0;
+    int bestBoard = board;
+    for (int sym = 1; sym < NUM_SYMMETRIES; sym++) {
+      int image = MASK_MAP[sym][xCells] | (MASK_MAP[sym][oCells] << TicTacToeState.O_SHIFT);
+      if (image < bestBoard) {
+        bestBoard = image;
+        bestSym = sym;
+      }
+    }
+    return bestSym | colorBit;
+  }
+
+  /**
+   * Canonical form of a packed board
+   */
+  public static int canonicalBoard(int board, boolean swapColors) {
+    return transform(board, canonicalTransform(board, swapColors));
+  }
+
+  /**
+   * Cell in the transformed frame that corresponds to a cell in the original frame
+   */
+  public static int toCanonicalCell(int cell, int transform) {
+    return CELL_MAP[transform & SYMMETRY_BITS][cell];
+  }
+
+  /**
+   * Cell in the original frame that corresponds to a cell in the transformed frame
+   */
+  public static int fromCanonicalCell(int cell, int transform) {
+    return INVERSE_CELL_MAP[transform & SYMMETRY_BITS][cell];
+  }
+
+  /**
+   * Packed board with the X and O occupancy masks exchanged
+   */
+  public static int swapColors(int board) {
+    return ((board & TicTacToeState.CELLS_MASK) << TicTacToeState.O_SHIFT) |
+        ((board >>> TicTacToeState.O_SHIFT) & TicTacToeState.CELLS_MASK);
+  }
+
+  /**
+   * Whether O is the next to move, given that X always moves first
+   */
+  private static boolean isOToMove(int board) {
+    return Integer.bitCount(board & TicTacToeState.CELLS_MASK) >
+        Integer.bitCount((board >>> TicTacToeState.O_SHIFT) & TicTacToeState.CELLS_MASK);
+  }
+}
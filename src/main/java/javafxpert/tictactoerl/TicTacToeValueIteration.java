@@ -0,0 +1,382 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.behavior.policy.GreedyQPolicy;
+import burlap.behavior.policy.Policy;
+import burlap.behavior.valuefunction.QProvider;
+import burlap.behavior.valuefunction.QValue;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Exact planner for the MDP that the learning agent faces in TicTacToeEnv against a known
+ * OpponentPolicy.  It enumerates every board reachable with the agent to move, builds the
+ * transition model from the opponent's move probabilities (see
+ * OpponentPolicy.moveProbabilities), and runs value iteration over primitive arrays.  Rewards
+ * are those of TicTacToeEnv.
+ *
+ * Every move adds a mark, so a board only leads to boards with more marks.  Each sweep visits
+ * the boards from the most marks to the fewest, one layer of boards with equal mark counts at
+ * a time, updating the values in place (Gauss-Seidel).  The boards of a layer don't depend on
+ * each other, so each layer is updated in parallel, and the first sweep already reaches the
+ * fixed point; the second only confirms it.
+ *
+ * The result is a QProvider, so its greedy policy (see getPolicy) is an optimal response to
+ * the opponent, and it can also be compiled with CompiledPolicy.compile.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class TicTacToeValueIteration implements QProvider {
+  private static final int NUM_CELLS = TicTacToeState.NUM_CELLS;
+
+  private double gamma;
+
+  private char agentMark;
+
+  private char opponentMark;
+
+  /**
+   * Packed board of each agent-to-move state
+   */
+  private int[] boards;
+
+  /**
+   * State number of each board encoding, or -1
+   */
+  private int[] stateOf = new int[TicTacToeRules.NUM_ENCODINGS];
+
+  /**
+   * Start of each layer within the state numbering, with states ordered from the most marks
+   * to the fewest, and an extra entry at the end
+   */
+  private int[] layerStarts;
+
+  /**
+   * Start, within the outcome arrays, of the outcomes of each (state, cell).  Entries for
+   * occupied cells are empty ranges.  Indexed by state * NUM_CELLS + cell, with an extra entry.
+   */
+  private int[] outcomeStarts;
+
+  /**
+   * State that each outcome leads to, or -1 when the game ends
+   */
+  private int[] outcomeStates;
+
+  private double[] outcomeProbabilities;
+
+  private double[] outcomeRewards;
+
+  private double[] values;
+
+  private double[] qValues;
+
+  private int numSweeps = 0;
+
+  /**
+   * Plans for a learning agent that plays against the given opponent
+   *
+   * @param opponent Policy of the player embedded in the environment
+   * @param agentMark Mark (X or O) of the learning agent.  When it is O, the environment's first
+   *                  move is random, as in TicTacToeEnv.resetEnvironment
+   * @param gamma Discount factor
+   */
+  public TicTacToeValueIteration(OpponentPolicy opponent, char agentMark, double gamma) {
+    this.gamma = gamma;
+    this.agentMark = agentMark;
+    this.opponentMark = agentMark == TicTacToeState.X_MARK ? TicTacToeState.O_MARK : TicTacToeState.X_MARK;
+    buildModel(opponent);
+  }
+
+  /**
+   * Run value iteration until no value changes by more than maxDelta, or until maxSweeps
+   *
+   * @return Number of sweeps made
+   */
+  public int plan(double maxDelta, int maxSweeps) {
+    int sweeps = 0;
+    double delta;
+    do {
+      delta = 0;
+      for (int layer = 0; layer + 1 < layerStarts.length; layer++) {
+        double layerDelta = IntStream.range(layerStarts[layer], layerStarts[layer + 1])
+            .parallel()
+            .mapToDouble(this::backup)
+            .max()
+            .orElse(0);
+        delta = Math.max(delta, layerDelta);
+      }
+      sweeps++;
+    } while (delta > maxDelta && sweeps < maxSweeps);
+    numSweeps += sweeps;
+    return sweeps;
+  }
+
+  /**
+   * Run value iteration to convergence
+   */
+  public int plan() {
+    return plan(0, Integer.MAX_VALUE);
+  }
+
+  public int getNumStates() {
+    return boards.length;
+  }
+
+  public int getNumSweeps() {
+    return numSweeps;
+  }
+
+  /**
+   * Greedy policy on the planned Q-values
+   */
+  public Policy getPolicy() {
+    return new GreedyQPolicy(this);
+  }
+
+  /**
+   * Expected discounted return of a game, from before the first move
+   */
+  public double startValue() {
+    if (agentMark == TicTacToeState.X_MARK) {
+      return values[stateOf[TicTacToeRules.encode(0)]];
+    }
+    double total = 0;
+    for (int cell = 0; cell < NUM_CELLS; cell++) {
+      total += values[stateOf[TicTacToeRules.encode(1 << cell)]];
+    }
+    return total / NUM_CELLS;
+  }
+
+  @Override
+  public List<QValue> qValues(State s) {
+    int board = ((TicTacToeState)s).getBoard();
+    List<Action> actions = MoveActionType.applicableActions(board);
+    List<QValue> qs = new ArrayList<>(actions.size());
+    for (Action a : actions) {
+      qs.add(new QValue(s, a, qValue(board, ((MoveAction)a).getActionId())));
+    }
+    return qs;
+  }
+
+  @Override
+  public double qValue(State s, Action a) {
+    return qValue(((TicTacToeState)s).getBoard(), ((MoveAction)a).getActionId());
+  }
+
+  @Override
+  public double value(State s) {
+    int state = stateOf[TicTacToeRules.encode(((TicTacToeState)s).getBoard())];
+    return state == -1 ? 0. : values[state];
+  }
+
+  /**
+   * Q-value of playing a cell on a packed board, or 0 for boards the agent can't face
+   */
+  public double qValue(int board, int cell) {
+    int state = stateOf[TicTacToeRules.encode(board)];
+    return state == -1 ? 0. : qValues[state * NUM_CELLS + cell];
+  }
+
+  /**
+   * Bellman backup of one state's Q-values and value
+   *
+   * @return Change in the state's value
+   */
+  private double backup(int state) {
+    double max = Double.NEGATIVE_INFINITY;
+    for (int cell = 0; cell < NUM_CELLS; cell++) {
+      int sa = state * NUM_CELLS + cell;
+      int start = outcomeStarts[sa];
+      int end = outcomeStarts[sa + 1];
+      if (start == end) {
+        continue;
+      }
+      double q = 0;
+      for (int outcome = start; outcome < end; outcome++) {
+        int next = outcomeStates[outcome];
+        q += outcomeProbabilities[outcome] *
+            (outcomeRewards[outcome] + (next == -1 ? 0. : gamma * values[next]));
+      }
+      qValues[sa] = q;
+      if (q > max) {
+        max = q;
+      }
+    }
+    double delta = Math.abs(max - values[state]);
+    values[state] = max;
+    return delta;
+  }
+
+  private void buildModel(OpponentPolicy opponent) {
+    // Enumerate the agent-to-move boards in progress, grouped by number of marks
+    List<List<Integer>> layers = new ArrayList<>();
+    for (int i = 0; i <= NUM_CELLS; i++) {
+      layers.add(new ArrayList<>());
+    }
+    Arrays.fill(stateOf, -1);
+    boolean[] seen = new boolean[TicTacToeRules.NUM_ENCODINGS];
+    List<Integer> frontier = new ArrayList<>();
+    if (agentMark == TicTacToeState.X_MARK) {
+      frontier.add(0);
+    }
+    else {
+      for (int cell = 0; cell < NUM_CELLS; cell++) {
+        frontier.add(TicTacToeState.withMark(0, cell, opponentMark));
+      }
+    }
+    double[] probabilities = new double[NUM_CELLS];
+    while (!frontier.isEmpty()) {
+      List<Integer> nextFrontier = new ArrayList<>();
+      for (int board : frontier) {
+        int code = TicTacToeRules.encode(board);
+        if (seen[code]) {
+          continue;
+        }
+        seen[code] = true;
+        layers.get(Integer.bitCount(board)).add(board);
+        for (int empty = TicTacToeState.emptyMask(board); empty != 0; empty &= empty - 1) {
+          int afterAgent = TicTacToeState.withMark(board, Integer.numberOfTrailingZeros(empty), agentMark);
+          if (TicTacToeRules.status(afterAgent) != TicTacToeRules.STATUS_IN_PROGRESS) {
+            continue;
+          }
+          opponent.moveProbabilities(afterAgent, opponentMark, probabilities);
+          for (int cell = 0; cell < NUM_CELLS; cell++) {
+            if (probabilities[cell] > 0) {
+              int afterOpponent = TicTacToeState.withMark(afterAgent, cell, opponentMark);
+              if (TicTacToeRules.status(afterOpponent) == TicTacToeRules.STATUS_IN_PROGRESS) {
+                nextFrontier.add(afterOpponent);
+              }
+            }
+          }
+        }
+      }
+      frontier = nextFrontier;
+    }
+
+    // Number the states from the most marks to the fewest
+    int numStates = 0;
+    for (List<Integer> layer : layers) {
+      numStates += layer.size();
+    }
+    boards = new int[numStates];
+    List<Integer> starts = new ArrayList<>();
+    int state = 0;
+    for (int marks = NUM_CELLS; marks >= 0; marks--) {
+      if (layers.get(marks).isEmpty()) {
+        continue;
+      }
+      starts.add(state);
+      for (int board : layers.get(marks)) {
+        boards[state] = board;
+        stateOf[TicTacToeRules.encode(board)] = state;
+        state++;
+      }
+    }
+    starts.add(state);
+    layerStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+
+    // Outcomes of each (state, cell)
+    outcomeStarts = new int[numStates * NUM_CELLS + 1];
+    int maxOutcomes = numStates * NUM_CELLS * NUM_CELLS;
+    outcomeStates = new int[maxOutcomes];
+    outcomeProbabilities = new double[maxOutcomes];
+    outcomeRewards = new double[maxOutcomes];
+    int numOutcomes = 0;
+    for (state = 0; state < numStates; state++) {
+      int board = boards[state];
+      for (int cell = 0; cell < NUM_CELLS; cell++) {
+        outcomeStarts[state * NUM_CELLS + cell] = numOutcomes;
+        if ((TicTacToeState.emptyMask(board) & (1 << cell)) == 0) {
+          continue;
+        }
+        int afterAgent = TicTacToeState.withMark(board, cell, agentMark);
+        if (TicTacToeRules.status(afterAgent) != TicTacToeRules.STATUS_IN_PROGRESS) {
+          outcomeStates[numOutcomes] = -1;
+          outcomeProbabilities[numOutcomes] = 1;
+          outcomeRewards[numOutcomes] = reward(afterAgent);
+          numOutcomes++;
+          continue;
+        }
+        opponent.moveProbabilities(afterAgent, opponentMark, probabilities);
+        for (int opponentCell = 0; opponentCell < NUM_CELLS; opponentCell++) {
+          if (probabilities[opponentCell] > 0) {
+            int afterOpponent = TicTacToeState.withMark(afterAgent, opponentCell, opponentMark);
+            boolean over = TicTacToeRules.status(afterOpponent) != TicTacToeRules.STATUS_IN_PROGRESS;
+            outcomeStates[numOutcomes] = over ? -1 : stateOf[TicTacToeRules.encode(afterOpponent)];
+            outcomeProbabilities[numOutcomes] = probabilities[opponentCell];
+            outcomeRewards[numOutcomes] = reward(afterOpponent);
+            numOutcomes++;
+          }
+        }
+      }
+    }
+    outcomeStarts[numStates * NUM_CELLS] = numOutcomes;
+
+    values = new double[numStates];
+    qValues = new double[numStates * NUM_CELLS];
+  }
+
+  /**
+   * Reward that TicTacToeEnv gives the agent for a move that leaves this board
+   */
+  private double reward(int board) {
+    int status = TicTacToeRules.status(board);
+    if (status == TicTacToeRules.STATUS_X_WON) {
+      return agentMark == TicTacToeState.X_MARK ? TicTacToeEnv.WIN_REWARD : TicTacToeEnv.LOSE_REWARD;
+    }
+    if (status == TicTacToeRules.STATUS_O_WON) {
+      return agentMark == TicTacToeState.O_MARK ? TicTacToeEnv.WIN_REWARD : TicTacToeEnv.LOSE_REWARD;
+    }
+    return TicTacToeEnv.MOVE_REWARD;
+  }
+
+  /**
+   * Plan an optimal response to each built-in policy, for each agent mark, and play it
+   */
+  public static void main(String[] args) {
+    for (char agentMark : new char[] {TicTacToeState.X_MARK, TicTacToeState.O_MARK}) {
+      for (int policy = 0; policy < OpponentPolicies.NUM_POLICIES; policy++) {
+        long startTime = System.nanoTime();
+        TicTacToeValueIteration planner = new TicTacToeValueIteration(OpponentPolicies.forId(policy), agentMark, 0.90);
+        int sweeps = planner.plan();
+        double millis = (System.nanoTime() - startTime) / 1e6;
+
+        TicTacToeEnv env = new TicTacToeEnv();
+        env.setEnvPlayerMark(agentMark == TicTacToeState.X_MARK ? TicTacToeState.O_MARK : TicTacToeState.X_MARK);
+        env.setAgentPolicy(policy);
+        CompiledPolicy compiledPolicy = CompiledPolicy.compile(planner);
+        int[] outcomes = new int[3];
+        for (int game = 0; game < 10000; game++) {
+          while (!env.isInTerminalState()) {
+            env.executeAction(compiledPolicy.action(env.currentObservation()));
+          }
+          outcomes[env.lastReward() == TicTacToeEnv.WIN_REWARD ? 0 : env.lastReward() == TicTacToeEnv.LOSE_REWARD ? 1 : 2]++;
+          env.resetEnvironment();
+        }
+
+        System.out.println(String.format("%c vs policy %d: %d states, %d sweeps, %.1f ms, start value %.3f, " +
+            "won %d, lost %d, drew %d of 10000", agentMark, policy, planner.getNumStates(), sweeps, millis,
+            planner.startValue(), outcomes[0], outcomes[1], outcomes[2]));
+      }
+    }
+  }
+}
@@ -25,7 +25,7 @@ import burlap.visualizer.Visualizer;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
-import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 
 /**
  * @author James L. Weaver (Twitter: @JavaFXpert)
@@ -52,23 +52,80 @@ public class TicTacToeWorld implements DomainGenerator {
     return new Visualizer(this.getStateRenderLayer());
   }
 
+  /**
+   * Number of rows (and columns) of a state's board
+   */
+  static int boardSize(State s) {
+    if (s instanceof TicTacToeState) {
+      return 3;
+    }
+    if (s instanceof KInARowState) {
+      return ((KInARowState)s).getSize();
+    }
+    return (int)Math.round(Math.sqrt(((String)s.get(TicTacToeState.VAR_GAME_BOARD)).length()));
+  }
+
+  /**
+   * Cells of a state's board that hold a mark (X or O), one bit per cell in row-major order
+   */
+  static long markCells(State s, char mark) {
+    if (s instanceof TicTacToeState) {
+      return TicTacToeState.markMask(((TicTacToeState)s).getBoard(), mark);
+    }
+    if (s instanceof KInARowState) {
+      KInARowState state = (KInARowState)s;
+      return mark == TicTacToeState.X_MARK ? state.getXCells() : state.getOCells();
+    }
+    String gameBoard = (String)s.get(TicTacToeState.VAR_GAME_BOARD);
+    long cells = 0;
+    for (int cell = 0; cell < gameBoard.length(); cell++) {
+      if (gameBoard.charAt(cell) == mark) {
+        cells |= 1L << cell;
+      }
+    }
+    return cells;
+  }
+
+  /**
+   * Transparent image to pre-render a sprite into
+   */
+  private static BufferedImage newSprite(int width, int height) {
+    return new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_ARGB);
+  }
+
+  /**
+   * Paints the grid lines, from an image of the whole grid that is rendered once for each
+   * canvas and board size.  Not thread safe: each thread painting should have its own painter.
+   */
   public class WallPainter implements StatePainter {
-    private int NUM_ROWS_COLS = 3;
+    private BufferedImage gridSprite;
+    private float spriteWidth;
+    private float spriteHeight;
+    private int spriteBoardSize;
 
     public void paint(Graphics2D g2, State s, float cWidth, float cHeight) {
+      int NUM_ROWS_COLS = boardSize(s);
+      if (gridSprite == null || spriteWidth != cWidth || spriteHeight != cHeight || spriteBoardSize != NUM_ROWS_COLS) {
+        gridSprite = renderGrid(NUM_ROWS_COLS, cWidth, cHeight);
+        spriteWidth = cWidth;
+        spriteHeight = cHeight;
+        spriteBoardSize = NUM_ROWS_COLS;
+      }
+      g2.drawImage(gridSprite, 0, 0, null);
+    }
+
+    private BufferedImage renderGrid(int NUM_ROWS_COLS, float cWidth, float cHeight) {
+      BufferedImage sprite = newSprite((int)Math.ceil(cWidth), (int)Math.ceil(cHeight));
+      Graphics2D g2 = sprite.createGraphics();
 
       g2.setStroke(new BasicStroke(5));
 
       g2.setColor(Color.BLACK);
 
-      //set up floats for the width and height of our domain
-      float fWidth = NUM_ROWS_COLS;
-      float fHeight = NUM_ROWS_COLS;
-
       //determine the width of a single cell
       //on our canvas such that the whole map can be painted
-      float width = cWidth / fWidth;
-      float height = cHeight / fHeight;
+      float width = cWidth / NUM_ROWS_COLS;
+      float height = cHeight / NUM_ROWS_COLS;
 
       for(int col = 1; col < NUM_ROWS_COLS; col++){
         float rx = col * width;
@@ -79,63 +136,72 @@ public class TicTacToeWorld implements DomainGenerator {
         float ry = row * height;
         g2.drawLine(0, (int)ry, (int)cWidth, (int)ry);
       }
+
+      g2.dispose();
+      return sprite;
     }
   }
 
+  /**
+   * Paints the X and O marks, from an image of each mark that is rendered once for each cell
+   * size.  Not thread safe: each thread painting should have its own painter.
+   */
   public class AgentPainter implements StatePainter {
-
-    private int NUM_ROWS = 3;
-    private int NUM_COLS = 3;
+    private BufferedImage xSprite;
+    private BufferedImage oSprite;
+    private float spriteWidth;
+    private float spriteHeight;
 
     @Override
     public void paint(Graphics2D g2, State s,
                       float cWidth, float cHeight) {
 
-      g2.setStroke(new BasicStroke(5));
-
-      //marks will be filled in gray
-      g2.setColor(Color.BLUE);
-
-      //set up floats for the width and height of our domain
-      float fWidth = NUM_COLS;
-      float fHeight = NUM_ROWS;
+      int NUM_ROWS = boardSize(s);
+      int NUM_COLS = NUM_ROWS;
 
       //determine the width of a single cell on our canvas
       //such that the whole map can be painted
-      float width = cWidth / fWidth;
-      float height = cHeight / fHeight;
-
-      String gameBoard = (String)s.get(TicTacToeState.VAR_GAME_BOARD);
-
-      //pass through each cell of our board, and it it's an X or O, it on our
-      //canvas of dimension width x height
-      for(int col = 0; col < NUM_ROWS; col++){
-        for(int row = 0; row < NUM_COLS; row++){
+      float width = cWidth / NUM_COLS;
+      float height = cHeight / NUM_ROWS;
+
+      if (xSprite == null || spriteWidth != width || spriteHeight != height) {
+        xSprite = renderMark(TicTacToeState.X_MARK, width, height);
+        oSprite = renderMark(TicTacToeState.O_MARK, width, height);
+        spriteWidth = width;
+        spriteHeight = height;
+      }
 
-          //TODO: Create utilities, perhaps with an associated enum, for reading contents of cells from the gameboard
+      //blit the sprite of each X and O at the top left corner of its cell
+      drawMarks(g2, xSprite, markCells(s, TicTacToeState.X_MARK), NUM_COLS, width, height);
+      drawMarks(g2, oSprite, markCells(s, TicTacToeState.O_MARK), NUM_COLS, width, height);
+    }
 
-          char cellMark = gameBoard.charAt(row * NUM_ROWS + col);
+    private void drawMarks(Graphics2D g2, BufferedImage sprite, long cells, int NUM_COLS, float width, float height) {
+      for (; cells != 0; cells &= cells - 1) {
+        int cell = Long.numberOfTrailingZeros(cells);
+        g2.drawImage(sprite, (int)((cell % NUM_COLS) * width), (int)((cell / NUM_COLS) * height), null);
+      }
+    }
 
-          //is there a mark here?
-          if(cellMark != TicTacToeState.EMPTY) {
+    private BufferedImage renderMark(char mark, float width, float height) {
+      BufferedImage sprite = newSprite((int)Math.ceil(width), (int)Math.ceil(height));
+      Graphics2D g2 = sprite.createGraphics();
 
-            //left coordinate of cell on our canvas
-            float rx = col * width;
+      g2.setStroke(new BasicStroke(5));
 
-            //top coordinate of cell on our canvas
-            float ry = row * height;
+      //marks will be drawn in blue
+      g2.setColor(Color.BLUE);
 
-            //paint the mark (X or O)
-            if (cellMark == TicTacToeState.O_MARK) {
-              g2.draw(new Ellipse2D.Float(rx + width * 0.25f, ry + height * 0.25f, width * .50f, height * .50f));
-            }
-            else {
-              g2.drawLine((int)(rx + width * 0.25f), (int)(ry + height * 0.25f), (int)(rx + width * 0.75), (int)(ry + height * 0.75));
-              g2.drawLine((int)(rx + width * 0.75), (int)(ry + height * 0.25f), (int)(rx + width * 0.25f), (int)(ry + height * 0.75));
-            }
-          }
-        }
+      if (mark == TicTacToeState.O_MARK) {
+        g2.draw(new Ellipse2D.Float(width * 0.25f, height * 0.25f, width * .50f, height * .50f));
       }
+      else {
+        g2.drawLine((int)(width * 0.25f), (int)(height * 0.25f), (int)(width * 0.75), (int)(height * 0.75));
+        g2.drawLine((int)(width * 0.75), (int)(height * 0.25f), (int)(width * 0.25f), (int)(height * 0.75));
+      }
+
+      g2.dispose();
+      return sprite;
     }
   }
 
@@ -151,15 +217,15 @@ public class TicTacToeWorld implements DomainGenerator {
     Visualizer v = gen.getVisualizer();
     VisualExplorer exp = new VisualExplorer(domain, env, v);
 
-    exp.addKeyAction("0", new MoveAction(0));
-    exp.addKeyAction("1", new MoveAction(1));
-    exp.addKeyAction("2", new MoveAction(2));
-    exp.addKeyAction("3", new MoveAction(3));
-    exp.addKeyAction("4", new MoveAction(4));
-    exp.addKeyAction("5", new MoveAction(5));
-    exp.addKeyAction("6", new MoveAction(6));
-    exp.addKeyAction("7", new MoveAction(7));
-    exp.addKeyAction("8", new MoveAction(8));
+    exp.addKeyAction("0", MoveAction.of(0));
+    exp.addKeyAction("1", MoveAction.of(1));
+    exp.addKeyAction("2", MoveAction.of(2));
+    exp.addKeyAction("3", MoveAction.of(3));
+    exp.addKeyAction("4", MoveAction.of(4));
+    exp.addKeyAction("5", MoveAction.of(5));
+    exp.addKeyAction("6", MoveAction.of(6));
+    exp.addKeyAction("7", MoveAction.of(7));
+    exp.addKeyAction("8", MoveAction.of(8));
 
     exp.initGUI();
   }
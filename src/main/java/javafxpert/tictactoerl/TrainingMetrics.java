@@ -0,0 +1,537 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.extensions.EnvironmentObserver;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntSupplier;
+
+/**
+ * Training instrumentation fed by the EnvironmentObserver lists of TicTacToeEnvs.  Attach it to
+ * each environment (see attach), which may be stepped on different threads.  It counts episodes
+ * and steps, keeps rolling win/loss/draw rates per agent mark and environment player policy,
+ * and a histogram of executeAction latencies, timed on one step in LATENCY_SAMPLE_INTERVAL.
+ *
+ * Each environment's observer keeps its own counters, histogram and outcome windows, written
+ * only by the thread stepping that environment, so workers never share a cache line or a lock
+ * on the step path.  Readers merge them across observers.
+ *
+ * The metrics are published as a TrainingMetricsMXBean, and once startReporting is called they
+ * are sampled periodically on a daemon thread and appended to a metrics file, one line per
+ * sample, which is flushed after every line.
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public class TrainingMetrics implements TrainingMetricsMXBean, AutoCloseable {
+  public static final int OUTCOME_WIN = 0;
+  public static final int OUTCOME_LOSS = 1;
+  public static final int OUTCOME_DRAW = 2;
+
+  /**
+   * Default number of recent episodes that outcome rates are measured over
+   */
+  public static final int DEFAULT_WINDOW = 1000;
+
+  /**
+   * Number of steps per latency sample
+   */
+  public static final int LATENCY_SAMPLE_INTERVAL = 16;
+
+  /**
+   * Latency histogram bucket b counts latencies below 2^b nanoseconds (and at least 2^(b-1))
+   */
+  private static final int NUM_LATENCY_BUCKETS = 64;
+
+  /**
+   * Index of the outcome windows for policies that aren't built in
+   */
+  private static final int OTHER_POLICY = OpponentPolicies.NUM_POLICIES;
+
+  private ObjectName objectName;
+
+  private Path metricsPath;
+
+  private int window;
+
+  private List<EnvObserver> observers = new CopyOnWriteArrayList<>();
+
+  private volatile IntSupplier stateCounter;
+
+  private ScheduledExecutorService scheduler;
+
+  private BufferedWriter metricsWriter;
+
+  private volatile IOException reportFailure;
+
+  private long startTime = System.nanoTime();
+
+  private long lastSampleTime = startTime;
+
+  private long lastEpisodeCount = 0;
+
+  private long lastStepCount = 0;
+
+  private volatile double episodesPerSecond = 0;
+
+  private volatile double stepsPerSecond = 0;
+
+  public TrainingMetrics(String name, String metricsPath) {
+    this(name, metricsPath, DEFAULT_WINDOW);
+  }
+
+  /**
+   * Creates the metrics and registers them with the platform MBean server
+   *
+   * @param name Name that the MXBean is registered under, as javafxpert.tictactoerl:type=TrainingMetrics,name=name
+   * @param metricsPath File that samples are appended to
+   * @param window Number of recent episodes of each environment that outcome rates are measured over
+   */
+  public TrainingMetrics(String name, String metricsPath, int window) {
+    if (window < 1) {
+      throw new IllegalArgumentException("Window must be positive: " + window);
+    }
+    this.metricsPath = Paths.get(metricsPath);
+    this.window = window;
+
+    try {
+      objectName = new ObjectName("javafxpert.tictactoerl:type=TrainingMetrics,name=" + ObjectName.quote(name));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    }
+    catch (JMException e) {
+      throw new IllegalStateException("Could not register training metrics " + name, e);
+    }
+  }
+
+  /**
+   * Add an observer that feeds these metrics to an environment
+   */
+  public void attach(TicTacToeEnv env) {
+    EnvObserver observer = new EnvObserver(env);
+    observers.add(observer);
+    env.addObservers(observer);
+  }
+
+  /**
+   * Supplier of the number of states in the learner's Q-table, for example stateCount(qTable)
+   */
+  public void setStateCounter(IntSupplier stateCounter) {
+    this.stateCounter = stateCounter;
+  }
+
+  /**
+   * Sample the metrics and append them to the metrics file every period on a daemon thread,
+   * until close
+   */
+  public synchronized void startReporting(long period, TimeUnit unit) {
+    if (scheduler != null) {
+      throw new IllegalStateException("Reporting already started");
+    }
+    try {
+      if (metricsPath.getParent() != null) {
+        Files.createDirectories(metricsPath.getParent());
+      }
+      metricsWriter = Files.newBufferedWriter(metricsPath, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "training-metrics");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleAtFixedRate(() -> {
+      try {
+        report();
+      }
+      catch (IOException e) {
+        reportFailure = e;
+      }
+    }, period, period, unit);
+  }
+
+  /**
+   * Stop reporting, append a final sample, and unregister the MXBean
+   */
+  @Override
+  public synchronized void close() {
+    try {
+      if (scheduler != null) {
+        scheduler.shutdown();
+        try {
+          scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        try {
+          report();
+          metricsWriter.close();
+        }
+        catch (IOException e) {
+          reportFailure = e;
+        }
+      }
+    }
+    finally {
+      try {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+          server.unregisterMBean(objectName);
+        }
+      }
+      catch (JMException e) {
+        // Already gone
+      }
+    }
+    if (reportFailure != null) {
+      throw new UncheckedIOException(reportFailure);
+    }
+  }
+
+  /**
+   * Number of states that have at least one Q-value other than the table's initial value
+   */
+  public static int stateCount(QTable qTable) {
+    double qInit = qTable.getQInit();
+    int count = 0;
+    for (int base = 0; base < QTable.SIZE; base += TicTacToeState.NUM_CELLS) {
+      for (int cell = 0; cell < TicTacToeState.NUM_CELLS; cell++) {
+        if (qTable.get(base + cell) != qInit) {
+          count++;
+          break;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public long getEpisodeCount() {
+    long count = 0;
+    for (EnvObserver observer : observers) {
+      count += observer.episodeCount.get();
+    }
+    return count;
+  }
+
+  @Override
+  public long getStepCount() {
+    long count = 0;
+    for (EnvObserver observer : observers) {
+      count += observer.stepCount.get();
+    }
+    return count;
+  }
+
+  @Override
+  public double getEpisodesPerSecond() {
+    return episodesPerSecond;
+  }
+
+  @Override
+  public double getStepsPerSecond() {
+    return stepsPerSecond;
+  }
+
+  @Override
+  public int getStateCount() {
+    IntSupplier counter = stateCounter;
+    return counter == null ? -1 : counter.getAsInt();
+  }
+
+  @Override
+  public long getStepLatencyP50Nanos() {
+    return latencyPercentile(0.50);
+  }
+
+  @Override
+  public long getStepLatencyP99Nanos() {
+    return latencyPercentile(0.99);
+  }
+
+  @Override
+  public long getStepLatencyMaxNanos() {
+    return latencyPercentile(1.0);
+  }
+
+  @Override
+  public Map<String, Double> getWinRates() {
+    return outcomeRates(OUTCOME_WIN);
+  }
+
+  @Override
+  public Map<String, Double> getLossRates() {
+    return outcomeRates(OUTCOME_LOSS);
+  }
+
+  @Override
+  public Map<String, Double> getDrawRates() {
+    return outcomeRates(OUTCOME_DRAW);
+  }
+
+  /**
+   * Update the per-second rates and append a line to the metrics file
+   */
+  private synchronized void report() throws IOException {
+    long now = System.nanoTime();
+    long episodes = getEpisodeCount();
+    long steps = getStepCount();
+    double seconds = (now - lastSampleTime) / 1e9;
+    if (seconds > 0) {
+      episodesPerSecond = (episodes - lastEpisodeCount) / seconds;
+      stepsPerSecond = (steps - lastStepCount) / seconds;
+    }
+    lastSampleTime = now;
+    lastEpisodeCount = episodes;
+    lastStepCount = steps;
+
+    StringBuilder line = new StringBuilder();
+    line.append(Instant.now())
+        .append(" elapsedSeconds=").append(String.format("%.1f", (now - startTime) / 1e9))
+        .append(" episodes=").append(episodes)
+        .append(" steps=").append(steps)
+        .append(" episodesPerSecond=").append(String.format("%.0f", episodesPerSecond))
+        .append(" stepsPerSecond=").append(String.format("%.0f", stepsPerSecond))
+        .append(" states=").append(getStateCount())
+        .append(" stepLatencyP50Nanos=").append(getStepLatencyP50Nanos())
+        .append(" stepLatencyP99Nanos=").append(getStepLatencyP99Nanos())
+        .append(" stepLatencyMaxNanos=").append(getStepLatencyMaxNanos());
+    long[][][] counts = outcomeCounts();
+    for (int mark = 0; mark < counts.length; mark++) {
+      for (int policy = 0; policy < counts[mark].length; policy++) {
+        long[] outcomes = counts[mark][policy];
+        long size = outcomes[OUTCOME_WIN] + outcomes[OUTCOME_LOSS] + outcomes[OUTCOME_DRAW];
+        if (size > 0) {
+          line.append(' ').append(key(mark, policy))
+              .append(String.format(" win=%.3f loss=%.3f draw=%.3f", (double)outcomes[OUTCOME_WIN] / size,
+                  (double)outcomes[OUTCOME_LOSS] / size, (double)outcomes[OUTCOME_DRAW] / size));
+        }
+      }
+    }
+    metricsWriter.write(line.toString());
+    metricsWriter.newLine();
+    metricsWriter.flush();
+  }
+
+  /**
+   * Upper bound of the latency histogram bucket that contains the given fraction of steps
+   */
+  private long latencyPercentile(double fraction) {
+    long[] counts = new long[NUM_LATENCY_BUCKETS];
+    long total = 0;
+    for (EnvObserver observer : observers) {
+      for (int bucket = 0; bucket < NUM_LATENCY_BUCKETS; bucket++) {
+        counts[bucket] += observer.latencyBuckets.get(bucket);
+      }
+    }
+    for (long count : counts) {
+      total += count;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long)Math.ceil(fraction * total));
+    long seen = 0;
+    for (int bucket = 0; bucket < NUM_LATENCY_BUCKETS; bucket++) {
+      seen += counts[bucket];
+      if (seen >= rank) {
+        return bucket == NUM_LATENCY_BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  private Map<String, Double> outcomeRates(int outcome) {
+    Map<String, Double> rates = new LinkedHashMap<>();
+    long[][][] counts = outcomeCounts();
+    for (int mark = 0; mark < counts.length; mark++) {
+      for (int policy = 0; policy < counts[mark].length; policy++) {
+        long[] outcomes = counts[mark][policy];
+        long size = outcomes[OUTCOME_WIN] + outcomes[OUTCOME_LOSS] + outcomes[OUTCOME_DRAW];
+        if (size > 0) {
+          rates.put(key(mark, policy), (double)outcomes[outcome] / size);
+        }
+      }
+    }
+    return rates;
+  }
+
+  /**
+   * Outcome counts of the observers' windows, summed and indexed by agent mark (0 for X, 1 for O),
+   * environment player policy and outcome
+   */
+  private long[][][] outcomeCounts() {
+    long[][][] counts = new long[2][OTHER_POLICY + 1][3];
+    for (EnvObserver observer : observers) {
+      for (int mark = 0; mark < counts.length; mark++) {
+        for (int policy = 0; policy < counts[mark].length; policy++) {
+          OutcomeWindow window = observer.outcomeWindows[mark][policy];
+          for (int outcome = 0; outcome < 3; outcome++) {
+            counts[mark][policy][outcome] += window.count(outcome);
+          }
+        }
+      }
+    }
+    return counts;
+  }
+
+  private static String key(int mark, int policy) {
+    return (mark == 0 ? TicTacToeState.X_MARK : TicTacToeState.O_MARK) + "/" +
+        (policy == OTHER_POLICY ? "other" : "policy" + policy);
+  }
+
+  /**
+   * Observer of one environment.  An environment is stepped by one thread at a time, so its
+   * counters have a single writer, which publishes them with lazySet rather than a locked
+   * read-modify-write for readers to sum.
+   */
+  private class EnvObserver implements EnvironmentObserver {
+    private TicTacToeEnv env;
+
+    private AtomicLong episodeCount = new AtomicLong();
+
+    private AtomicLong stepCount = new AtomicLong();
+
+    private AtomicLongArray latencyBuckets = new AtomicLongArray(NUM_LATENCY_BUCKETS);
+
+    /**
+     * Rolling outcomes, indexed by agent mark (0 for X, 1 for O) and environment player policy
+     */
+    private OutcomeWindow[][] outcomeWindows = new OutcomeWindow[2][OTHER_POLICY + 1];
+
+    private int stepsUntilSample = LATENCY_SAMPLE_INTERVAL;
+
+    /**
+     * Start time of the step in progress, or 0 if it isn't sampled
+     */
+    private long stepStartTime;
+
+    EnvObserver(TicTacToeEnv env) {
+      this.env = env;
+      for (OutcomeWindow[] markWindows : outcomeWindows) {
+        for (int policy = 0; policy < markWindows.length; policy++) {
+          markWindows[policy] = new OutcomeWindow(window);
+        }
+      }
+    }
+
+    @Override
+    public void observeEnvironmentActionInitiation(State o, Action action) {
+      if (--stepsUntilSample == 0) {
+        stepsUntilSample = LATENCY_SAMPLE_INTERVAL;
+        stepStartTime = System.nanoTime();
+      }
+    }
+
+    @Override
+    public void observeEnvironmentInteraction(EnvironmentOutcome eo) {
+      if (stepStartTime != 0) {
+        long latency = System.nanoTime() - stepStartTime;
+        int bucket = Long.SIZE - Long.numberOfLeadingZeros(Math.max(latency, 0));
+        latencyBuckets.lazySet(bucket, latencyBuckets.get(bucket) + 1);
+        stepStartTime = 0;
+      }
+      stepCount.lazySet(stepCount.get() + 1);
+
+      if (eo.terminated) {
+        episodeCount.lazySet(episodeCount.get() + 1);
+        char agentMark = env.getAgentPlayerMark();
+        int status = TicTacToeRules.status(((TicTacToeState)eo.op).getBoard());
+        int outcome;
+        if (status == TicTacToeRules.STATUS_CATS_GAME) {
+          outcome = OUTCOME_DRAW;
+        }
+        else if ((status == TicTacToeRules.STATUS_X_WON) == (agentMark == TicTacToeState.X_MARK)) {
+          outcome = OUTCOME_WIN;
+        }
+        else {
+          outcome = OUTCOME_LOSS;
+        }
+        int policy = env.getAgentPolicy();
+        outcomeWindows[agentMark == TicTacToeState.X_MARK ? 0 : 1][policy < 0 ? OTHER_POLICY : policy].add(outcome);
+      }
+    }
+
+    @Override
+    public void observeEnvironmentReset(Environment resetEnvironment) {
+    }
+  }
+
+  /**
+   * Outcomes of the most recent episodes of one environment, in a ring.  Only the environment's
+   * thread adds to it; the counts may be read from any thread.
+   */
+  private static class OutcomeWindow {
+    private byte[] outcomes;
+
+    private AtomicIntegerArray counts = new AtomicIntegerArray(3);
+
+    private int next = 0;
+
+    private int size = 0;
+
+    OutcomeWindow(int capacity) {
+      outcomes = new byte[capacity];
+    }
+
+    void add(int outcome) {
+      if (size == outcomes.length) {
+        int evicted = outcomes[next];
+        counts.lazySet(evicted, counts.get(evicted) - 1);
+      }
+      else {
+        size++;
+      }
+      outcomes[next] = (byte)outcome;
+      counts.lazySet(outcome, counts.get(outcome) + 1);
+      next = (next + 1) % outcomes.length;
+    }
+
+    int count(int outcome) {
+      return counts.get(outcome);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javafxpert.tictactoerl;
+
+import java.util.Map;
+
+/**
+ * JMX view of a TrainingMetrics.  Rates are measured over the most recent reporting period,
+ * and outcome rates over the most recent episodes of each environment, per agent mark and
+ * environment player policy, keyed like "X/policy4".
+ *
+ * @author James L. Weaver (Twitter: @JavaFXpert)
+ */
+public interface TrainingMetricsMXBean {
+  long getEpisodeCount();
+
+  long getStepCount();
+
+  double getEpisodesPerSecond();
+
+  double getStepsPerSecond();
+
+  int getStateCount();
+
+  long getStepLatencyP50Nanos();
+
+  long getStepLatencyP99Nanos();
+
+  long getStepLatencyMaxNanos();
+
+  Map<String, Double> getWinRates();
+
+  Map<String, Double> getLossRates();
+
+  Map<String, Double> getDrawRates();
+}